@@ -0,0 +1,120 @@
+package adeo.leroymerlin.cdp.benchmark;
+
+import adeo.leroymerlin.cdp.entity.Band;
+import adeo.leroymerlin.cdp.entity.Event;
+import adeo.leroymerlin.cdp.entity.Member;
+import adeo.leroymerlin.cdp.repository.EventRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Generates synthetic Event/Band/Member graphs for the benchmarks.
+ * Generation is seeded, so every run and every fork benchmarks the same catalogue.
+ */
+public final class CatalogGenerator {
+
+    public static final int MEMBERS_PER_BAND = 5;
+    public static final int BANDS_PER_EVENT = 10;
+
+    private static final String[] FIRST_NAMES = {
+            "Anika", "Aaliyah", "Daisy", "Jasmine", "Stacey", "Madeleine", "Veronica", "Frankie", "Gertrude",
+            "Genevieve", "Talia", "Katy", "Constance", "Haleema", "Ava", "Eleanor", "Laila", "Robbie", "Crystal",
+            "Abigail", "Felix", "Kimberly", "Yasmine", "Annabel", "Charlie", "Betty", "Jamie", "Danielle", "Victoria"};
+    private static final String[] LAST_NAMES = {
+            "Walsh", "York", "Burke", "Collier", "ODoherty", "Taylor", "Graves", "Gross", "Hudson", "Clark", "Bush",
+            "Stone", "Carroll", "Poole", "Dunlap", "Fisher", "Shelton", "Bender", "Lynn", "Cardenas", "Nichols",
+            "Jacobs", "Buckley", "Hardy", "Wolf", "Thomas", "Petty", "Connor", "Cooper", "Jarvis"};
+
+    private CatalogGenerator() {
+    }
+
+    /**
+     * Generates a catalogue holding the given number of members, grouped in bands of
+     * {@value #MEMBERS_PER_BAND} members and events of {@value #BANDS_PER_EVENT} bands.
+     *
+     * @param memberCount the total number of members
+     * @return the generated events ordered by id
+     */
+    public static List<Event> generate(int memberCount) {
+        Random random = new Random(42);
+        List<Event> events = new ArrayList<>();
+        Event event = null;
+        Band band = null;
+        for (int memberIndex = 0; memberIndex < memberCount; memberIndex++) {
+            if (memberIndex % (MEMBERS_PER_BAND * BANDS_PER_EVENT) == 0) {
+                event = new Event();
+                event.setId((long) events.size());
+                event.setTitle("Festival " + events.size());
+                event.setImgUrl("img/" + (1000 + events.size() % 5) + ".jpeg");
+                event.setBands(new HashSet<>());
+                events.add(event);
+            }
+            if (memberIndex % MEMBERS_PER_BAND == 0) {
+                band = new Band();
+                band.setId((long) memberIndex / MEMBERS_PER_BAND);
+                band.setName("Band " + band.getId());
+                band.setMembers(new HashSet<>());
+                event.getBands().add(band);
+            }
+            Member member = new Member();
+            member.setId((long) memberIndex);
+            member.setName("Queen " + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]
+                    + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+            band.getMembers().add(member);
+        }
+        return events;
+    }
+
+    /**
+     * Returns an in-memory repository serving the given events, implementing only the queries used by the search.
+     *
+     * @param events the events of the catalogue
+     * @return the repository
+     */
+    @SuppressWarnings("unchecked")
+    public static EventRepository repositoryOf(List<Event> events) {
+        Map<Long, Event> eventsById = events.stream().collect(Collectors.toMap(Event::getId, Function.identity()));
+        return (EventRepository) Proxy.newProxyInstance(EventRepository.class.getClassLoader(),
+                new Class<?>[]{EventRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAllWithBandsAndMembers" -> events;
+                    case "findAllWithBandsAndMembersByIdIn" -> ((Collection<Long>) args[0]).stream()
+                            .sorted()
+                            .map(eventsById::get)
+                            .toList();
+                    case "toString" -> "InMemoryEventRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Returns a transaction manager doing nothing, the in-memory repositories having no transaction.
+     */
+    public static PlatformTransactionManager noTransactionManager() {
+        return new AbstractPlatformTransactionManager() {
+            @Override
+            protected Object doGetTransaction() {
+                return new Object();
+            }
+
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+            }
+
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+            }
+
+            @Override
+            protected void doRollback(DefaultTransactionStatus status) {
+            }
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package adeo.leroymerlin.cdp.benchmark;
+
+import adeo.leroymerlin.cdp.codec.EventBinaryCodec;
+import adeo.leroymerlin.cdp.dto.EventDTO;
+import adeo.leroymerlin.cdp.mapper.DtoMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding of the whole catalogue as JSON and as binary, with and without gzip.
+ * The payload sizes are printed by the setup, the encode times are measured by the benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EncodingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int memberCount;
+
+    private List<EventDTO> events;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() throws IOException {
+        events = CatalogGenerator.generate(memberCount).stream()
+                .map(DtoMapper::toEventDTO)
+                .toList();
+        writer = JsonMapper.builder().build().writer();
+        System.out.printf("%njson: %d bytes, json+gzip: %d bytes, binary: %d bytes, binary+gzip: %d bytes%n",
+                encodeJson().length, encodeJsonGzip().length, encodeBinary().length, encodeBinaryGzip().length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return writer.writeValueAsBytes(events);
+    }
+
+    @Benchmark
+    public byte[] encodeJsonGzip() throws IOException {
+        return gzip(writer.writeValueAsBytes(events));
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return EventBinaryCodec.encode(events);
+    }
+
+    @Benchmark
+    public byte[] encodeBinaryGzip() throws IOException {
+        return gzip(EventBinaryCodec.encode(events));
+    }
+
+    private static byte[] gzip(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,91 @@
+package adeo.leroymerlin.cdp.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load test measuring the throughput and latency of an endpoint at increasing concurrency levels,
+ * to locate the concurrency ceiling of the server. Each virtual user sends its next request as soon as
+ * the previous one completes. Run it against the default profile, then against the {@code virtual-threads} profile:
+ * <pre>
+ * java -cp target/test-classes adeo.leroymerlin.cdp.benchmark.LoadTest \
+ *     http://localhost:8080/api/events/search/wa 50,200,400,1000,4000 10
+ * </pre>
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        URI uri = URI.create(args.length > 0 ? args[0] : "http://localhost:8080/api/events/search/wa");
+        int[] concurrencyLevels = Arrays.stream((args.length > 1 ? args[1] : "50,200,400,1000,4000").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 10);
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        System.out.printf("%-12s %12s %10s %10s %10s %10s%n", "concurrency", "requests/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (int concurrency : concurrencyLevels) {
+            run(client, uri, concurrency, duration).print(concurrency);
+        }
+    }
+
+    private static Result run(HttpClient client, URI uri, int concurrency, Duration duration) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                users.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.increment();
+                            } else {
+                                latencies.add(System.nanoTime() - start);
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                    }
+                });
+            }
+        }
+        return new Result(new ArrayList<>(latencies), errors.sum(), duration);
+    }
+
+    private record Result(List<Long> latencies, long errors, Duration duration) {
+
+        void print(int concurrency) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("%-12d %12.0f %10.1f %10.1f %10.1f %10d%n", concurrency,
+                    sorted.length / (double) duration.toSeconds(),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 1.0), errors);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
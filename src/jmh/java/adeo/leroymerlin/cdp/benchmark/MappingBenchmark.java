@@ -0,0 +1,73 @@
+package adeo.leroymerlin.cdp.benchmark;
+
+import adeo.leroymerlin.cdp.dto.BandDTO;
+import adeo.leroymerlin.cdp.dto.EventDTO;
+import adeo.leroymerlin.cdp.entity.Band;
+import adeo.leroymerlin.cdp.entity.Event;
+import adeo.leroymerlin.cdp.mapper.DtoMapper;
+import adeo.leroymerlin.cdp.readmodel.EventView;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of the whole catalogue from entities to DTOs and to read model views,
+ * one representation per band occurrence or one shared per band.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MappingBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int memberCount;
+
+    private List<Event> events;
+
+    @Setup
+    public void setUp() {
+        events = CatalogGenerator.generate(memberCount);
+    }
+
+    @Benchmark
+    public List<EventDTO> toEventDTOs() {
+        return events.stream()
+                .map(DtoMapper::toEventDTO)
+                .toList();
+    }
+
+    @Benchmark
+    public List<EventDTO> toSharedEventDTOs() {
+        Map<Long, BandDTO> bandDTOs = new HashMap<>();
+        List<EventDTO> eventDTOs = new ArrayList<>(events.size());
+        for (Event event : events) {
+            Set<BandDTO> bands = LinkedHashSet.newLinkedHashSet(event.getBands().size());
+            for (Band band : event.getBands()) {
+                bands.add(bandDTOs.computeIfAbsent(band.getId(), id -> DtoMapper.toBandDTO(band)));
+            }
+            eventDTOs.add(new EventDTO(event.getId(), event.getTitle(), event.getImgUrl(), bands, false));
+        }
+        return eventDTOs;
+    }
+
+    @Benchmark
+    public List<EventView> toEventViews() {
+        return events.stream()
+                .map(DtoMapper::toEventView)
+                .toList();
+    }
+
+    @Benchmark
+    public List<EventView> toSharedEventViews() {
+        return DtoMapper.toEventViews(events);
+    }
+}
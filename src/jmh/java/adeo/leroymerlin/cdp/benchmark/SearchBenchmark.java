@@ -0,0 +1,122 @@
+package adeo.leroymerlin.cdp.benchmark;
+
+import adeo.leroymerlin.cdp.config.SearchProperties;
+import adeo.leroymerlin.cdp.dto.BandDTO;
+import adeo.leroymerlin.cdp.dto.EventDTO;
+import adeo.leroymerlin.cdp.dto.MemberDTO;
+import adeo.leroymerlin.cdp.entity.Band;
+import adeo.leroymerlin.cdp.entity.Event;
+import adeo.leroymerlin.cdp.entity.Member;
+import adeo.leroymerlin.cdp.metrics.MetricsRegistry;
+import adeo.leroymerlin.cdp.search.ColumnarEventSearchEngine;
+import adeo.leroymerlin.cdp.search.IndexedEventSearchEngine;
+import adeo.leroymerlin.cdp.search.NameIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Member name search, through the indexed engine, through the sequential and parallel columnar scans
+ * and through the original full scan over the whole graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SearchBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int memberCount;
+
+    @Param({"wa", "walsh", "anika walsh"})
+    private String query;
+
+    private List<Event> events;
+    private IndexedEventSearchEngine indexedEventSearchEngine;
+    private ColumnarEventSearchEngine columnarEventSearchEngine;
+    private ColumnarEventSearchEngine parallelColumnarEventSearchEngine;
+    private ForkJoinPool searchPool;
+
+    @Setup
+    public void setUp() {
+        events = CatalogGenerator.generate(memberCount);
+        indexedEventSearchEngine = new IndexedEventSearchEngine(CatalogGenerator.repositoryOf(events), new NameIndex(),
+                new MetricsRegistry());
+        indexedEventSearchEngine.buildIndex();
+        // Without a search pool, the columnar catalogue is always scanned by the benchmark thread
+        columnarEventSearchEngine = new ColumnarEventSearchEngine(CatalogGenerator.repositoryOf(events), new MetricsRegistry(),
+                CatalogGenerator.noTransactionManager(), new SearchProperties(1, Integer.MAX_VALUE, 1, Duration.ZERO),
+                null);
+        columnarEventSearchEngine.buildCatalog();
+        SearchProperties searchProperties = new SearchProperties(0, 100_000, 0, Duration.ZERO);
+        searchPool = new ForkJoinPool(searchProperties.poolParallelism());
+        parallelColumnarEventSearchEngine = new ColumnarEventSearchEngine(CatalogGenerator.repositoryOf(events),
+                new MetricsRegistry(), CatalogGenerator.noTransactionManager(), searchProperties, searchPool);
+        parallelColumnarEventSearchEngine.buildCatalog();
+    }
+
+    @TearDown
+    public void tearDown() {
+        searchPool.shutdown();
+    }
+
+    @Benchmark
+    public List<EventDTO> indexedSearch() {
+        return indexedEventSearchEngine.search(query);
+    }
+
+    @Benchmark
+    public List<EventDTO> columnarSearch() {
+        return columnarEventSearchEngine.search(query);
+    }
+
+    /**
+     * Split between the cores above 10⁵ names, sequential below.
+     */
+    @Benchmark
+    public List<EventDTO> parallelColumnarSearch() {
+        return parallelColumnarEventSearchEngine.search(query);
+    }
+
+    @Benchmark
+    public List<EventDTO> fullScanSearch() {
+        return fullScan(events, query.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Baseline: the stream pipeline scanning every member of every band of every event on each request.
+     */
+    private static List<EventDTO> fullScan(List<Event> events, String query) {
+        return events.stream()
+                .map(event -> {
+                    Set<BandDTO> bands = event.getBands().stream()
+                            .map(band -> toBandDTO(band, query))
+                            .filter(band -> !band.getMembers().isEmpty())
+                            .collect(Collectors.toSet());
+                    return new EventDTO(event.getId(), event.getTitle() + " [" + bands.size() + "]",
+                            event.getImgUrl(), bands, false);
+                })
+                .filter(event -> !event.getBands().isEmpty())
+                .toList();
+    }
+
+    private static BandDTO toBandDTO(Band band, String query) {
+        Set<MemberDTO> members = band.getMembers().stream()
+                .filter(member -> member.getName().toLowerCase().contains(query))
+                .map(SearchBenchmark::toMemberDTO)
+                .collect(Collectors.toSet());
+        return new BandDTO(band.getName() + " [" + members.size() + "]", members, false);
+    }
+
+    private static MemberDTO toMemberDTO(Member member) {
+        return new MemberDTO(member.getName(), false);
+    }
+}
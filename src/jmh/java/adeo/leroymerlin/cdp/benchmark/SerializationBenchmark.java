@@ -0,0 +1,42 @@
+package adeo.leroymerlin.cdp.benchmark;
+
+import adeo.leroymerlin.cdp.dto.EventDTO;
+import adeo.leroymerlin.cdp.mapper.DtoMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the whole catalogue as a list of DTOs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SerializationBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int memberCount;
+
+    private List<EventDTO> events;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() {
+        events = CatalogGenerator.generate(memberCount).stream()
+                .map(DtoMapper::toEventDTO)
+                .toList();
+        writer = JsonMapper.builder().build().writer();
+    }
+
+    @Benchmark
+    public byte[] serializeEventDTOs() throws JsonProcessingException {
+        return writer.writeValueAsBytes(events);
+    }
+}
@@ -3,11 +3,15 @@ package adeo.leroymerlin.cdp;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @SpringBootApplication
 @EnableTransactionManagement
 @EnableCaching
+@EnableAsync
+@EnableScheduling
 public class AdeoLeroyMerlinCDPRecruitmentApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,310 @@
+package adeo.leroymerlin.cdp.cache;
+
+import adeo.leroymerlin.cdp.config.CacheProperties;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Cache bounded by the total weight of its entries, with optional expiry and refresh.
+ * A collection weighs its size and any other value weighs 1.
+ * <p>
+ * Reads go to a {@link ConcurrentHashMap} without locking and only mark the entry as recently used.
+ * Writes are serialized and evict beyond the maximum weight with the second-chance (CLOCK) policy:
+ * the entries are queued in write order, and an entry read since it was last examined is queued again
+ * instead of being evicted, approximating least-recently-used eviction.
+ * <p>
+ * Concurrent readers of a missing key wait for a single load. When an entry is older than the refresh duration,
+ * the first reader gets a miss and reloads it while the other readers keep receiving the current value
+ * until the reloaded one is put. A load overlapping an eviction returns its value without caching it, since it
+ * may have been computed from the evicted state.
+ */
+public class BoundedCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final long maximumWeight;
+    private final long timeToLiveNanos;
+    private final long refreshAfterWriteNanos;
+    private final LongSupplier ticker;
+
+    private final ConcurrentHashMap<Object, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> evictionQueue = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ConcurrentHashMap<Object, ReentrantLock> loadLocks = new ConcurrentHashMap<>();
+    private final AtomicLong totalWeight = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private int queuedEntries;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder totalLoadTimeNanos = new LongAdder();
+
+    public BoundedCache(String name, CacheProperties.Spec spec) {
+        this(name, spec, System::nanoTime);
+    }
+
+    public BoundedCache(String name, CacheProperties.Spec spec, LongSupplier ticker) {
+        super(true);
+        this.name = name;
+        this.maximumWeight = spec.maximumWeight();
+        this.timeToLiveNanos = spec.timeToLive().toNanos();
+        this.refreshAfterWriteNanos = spec.refreshAfterWrite().toNanos();
+        this.ticker = ticker;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return entries;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = read(key, false);
+        if (value == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Loads the value of a missing key while holding a per-key lock,
+     * so that concurrent readers of the same key wait for a single load.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            return (T) fromStoreValue(value);
+        }
+        ReentrantLock loadLock = loadLocks.computeIfAbsent(key, k -> new ReentrantLock());
+        loadLock.lock();
+        try {
+            value = read(key, true);
+            if (value != null) {
+                return (T) fromStoreValue(value);
+            }
+            long invalidationsBefore = invalidations.get();
+            long start = ticker.getAsLong();
+            try {
+                T loaded = valueLoader.call();
+                if (invalidations.get() == invalidationsBefore) {
+                    put(key, loaded);
+                } else {
+                    releaseRefresh(key);
+                }
+                return loaded;
+            } catch (Exception e) {
+                releaseRefresh(key);
+                throw new ValueRetrievalException(key, valueLoader, e);
+            } finally {
+                loadCount.increment();
+                totalLoadTimeNanos.add(ticker.getAsLong() - start);
+            }
+        } finally {
+            loadLock.unlock();
+            loadLocks.remove(key, loadLock);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Entry entry = new Entry(key, toStoreValue(value), weigh(value), ticker.getAsLong());
+        writeLock.lock();
+        try {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                totalWeight.addAndGet(-previous.weight);
+            }
+            totalWeight.addAndGet(entry.weight);
+            enqueue(entry);
+            evictOverweight();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        writeLock.lock();
+        try {
+            invalidations.incrementAndGet();
+            Entry removed = entries.remove(key);
+            if (removed != null) {
+                totalWeight.addAndGet(-removed.weight);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Evicts the entries whose value matches the given predicate.
+     *
+     * @param valuePredicate the predicate tested against the cached values
+     * @return the number of evicted entries
+     */
+    public int evictIf(Predicate<Object> valuePredicate) {
+        writeLock.lock();
+        try {
+            invalidations.incrementAndGet();
+            int evicted = 0;
+            for (Entry entry : entries.values()) {
+                if (valuePredicate.test(fromStoreValue(entry.value)) && entries.remove(entry.key, entry)) {
+                    totalWeight.addAndGet(-entry.weight);
+                    evicted++;
+                }
+            }
+            return evicted;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        writeLock.lock();
+        try {
+            invalidations.incrementAndGet();
+            entries.clear();
+            evictionQueue.clear();
+            queuedEntries = 0;
+            totalWeight.set(0);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this cache.
+     *
+     * @return the current statistics
+     */
+    public CacheStatistics getStatistics() {
+        long hits = hitCount.sum();
+        long misses = missCount.sum();
+        long lookups = hits + misses;
+        return new CacheStatistics(name, hits, misses, lookups == 0 ? 1.0 : (double) hits / lookups,
+                evictionCount.sum(), loadCount.sum(), totalLoadTimeNanos.sum(), entries.size(), totalWeight.get());
+    }
+
+    /**
+     * Reads the store value of a key, dropping it if expired and reporting a miss to the first reader
+     * of an entry due for refresh.
+     *
+     * @param key     the key to read
+     * @param reload  whether the caller is about to load the key, an entry being refreshed is then reported missing
+     * @return the store value, or null if the caller has to load it
+     */
+    private Object read(Object key, boolean reload) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        long age = ticker.getAsLong() - entry.writtenAt;
+        if (timeToLiveNanos > 0 && age >= timeToLiveNanos) {
+            if (entries.remove(key, entry)) {
+                totalWeight.addAndGet(-entry.weight);
+                evictionCount.increment();
+            }
+            return null;
+        }
+        if (reload && entry.refreshing.get()) {
+            return null;
+        }
+        if (refreshAfterWriteNanos > 0 && age >= refreshAfterWriteNanos && entry.refreshing.compareAndSet(false, true)) {
+            return null;
+        }
+        if (!entry.accessed) {
+            entry.accessed = true;
+        }
+        return entry.value;
+    }
+
+    private void releaseRefresh(Object key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.refreshing.set(false);
+        }
+    }
+
+    /**
+     * Queues a written entry, dropping the queued entries that were replaced or removed meanwhile
+     * once they outnumber the live ones, so that the queue stays bounded by the size of the cache.
+     */
+    private void enqueue(Entry entry) {
+        evictionQueue.add(entry);
+        if (++queuedEntries > 2 * entries.size() + 16) {
+            evictionQueue.removeIf(queued -> entries.get(queued.key) != queued);
+            queuedEntries = evictionQueue.size();
+        }
+    }
+
+    /**
+     * Evicts entries in write order until the cache is within its maximum weight,
+     * giving a second chance to the entries read since they were last examined.
+     * The queued entries that were replaced or removed meanwhile are dropped from the queue.
+     */
+    private void evictOverweight() {
+        while (totalWeight.get() > maximumWeight) {
+            Entry eldest = evictionQueue.poll();
+            if (eldest == null) {
+                return;
+            }
+            queuedEntries--;
+            if (entries.get(eldest.key) != eldest) {
+                continue;
+            }
+            if (eldest.accessed) {
+                eldest.accessed = false;
+                evictionQueue.add(eldest);
+                queuedEntries++;
+            } else if (entries.remove(eldest.key, eldest)) {
+                totalWeight.addAndGet(-eldest.weight);
+                evictionCount.increment();
+            }
+        }
+    }
+
+    private static long weigh(Object value) {
+        return value instanceof Collection<?> collection ? Math.max(1, collection.size()) : 1;
+    }
+
+    private static final class Entry {
+        private final Object key;
+        private final Object value;
+        private final long weight;
+        private final long writtenAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        /**
+         * Whether the entry was read since it was queued or last given a second chance.
+         */
+        private volatile boolean accessed;
+
+        private Entry(Object key, Object value, long weight, long writtenAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writtenAt = writtenAt;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package adeo.leroymerlin.cdp.cache;
+
+import adeo.leroymerlin.cdp.config.CacheProperties;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache manager creating a {@link BoundedCache} per configured cache.
+ * A cache that is not configured is created on first use with the default specification.
+ */
+public class BoundedCacheManager implements CacheManager {
+
+    private final CacheProperties properties;
+    private final ConcurrentMap<String, BoundedCache> caches = new ConcurrentHashMap<>();
+
+    public BoundedCacheManager(CacheProperties properties) {
+        this.properties = properties;
+        properties.caches().forEach((name, spec) -> caches.put(name, new BoundedCache(name, spec)));
+    }
+
+    @Override
+    public BoundedCache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> new BoundedCache(cacheName, properties.defaults()));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * Returns the statistics of every cache.
+     *
+     * @return a snapshot of the statistics of each cache
+     */
+    public Collection<CacheStatistics> getStatistics() {
+        return caches.values().stream()
+                .map(BoundedCache::getStatistics)
+                .toList();
+    }
+}
@@ -0,0 +1,25 @@
+package adeo.leroymerlin.cdp.cache;
+
+/**
+ * Point-in-time statistics of a {@link BoundedCache}.
+ *
+ * @param name                 the name of the cache
+ * @param hitCount             the number of lookups that returned a cached value
+ * @param missCount            the number of lookups that did not return a cached value
+ * @param hitRatio             the ratio of hits over lookups, 1 when there was no lookup
+ * @param evictionCount        the number of entries evicted because of the weight bound or their expiry
+ * @param loadCount            the number of values loaded through the cache
+ * @param totalLoadTimeNanos   the total time spent loading values
+ * @param size                 the current number of entries
+ * @param weight               the current total weight of the entries
+ */
+public record CacheStatistics(String name,
+                              long hitCount,
+                              long missCount,
+                              double hitRatio,
+                              long evictionCount,
+                              long loadCount,
+                              long totalLoadTimeNanos,
+                              long size,
+                              long weight) {
+}
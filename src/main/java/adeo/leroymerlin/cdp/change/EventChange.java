@@ -0,0 +1,52 @@
+package adeo.leroymerlin.cdp.change;
+
+import adeo.leroymerlin.cdp.dto.EventReviewDTO;
+
+import java.util.List;
+
+/**
+ * Change of the catalogue made by the {@code EventService}, published as an application event.
+ * <p>
+ * The derived structures (events snapshot, search index, suggestions, search results) subscribe with
+ * {@code @TransactionalEventListener(fallbackExecution = true)}: a change is applied once its transaction is committed,
+ * or at once outside a transaction, so that a rolled back change is never exposed. Each subscriber applies the change
+ * as a delta on the events it names, instead of reloading the catalogue.
+ */
+public sealed interface EventChange {
+
+    /**
+     * The events have been deleted.
+     *
+     * @param ids the ids of the deleted events
+     */
+    record Deleted(List<Long> ids) implements EventChange {
+
+        public Deleted {
+            ids = List.copyOf(ids);
+        }
+    }
+
+    /**
+     * The reviews of the events have been replaced.
+     *
+     * @param reviews the applied reviews, a later review of the same event wins
+     */
+    record Reviewed(List<EventReviewDTO> reviews) implements EventChange {
+
+        public Reviewed {
+            reviews = List.copyOf(reviews);
+        }
+    }
+
+    /**
+     * The rating aggregates of an event have been incremented.
+     * The change carries the increment rather than the new totals, which would not account for the ratings
+     * still buffered in write-behind mode and already applied to the events snapshot.
+     *
+     * @param id    the id of the rated event
+     * @param stars the number of stars added
+     * @param votes the number of votes added
+     */
+    record Rated(Long id, long stars, long votes) implements EventChange {
+    }
+}
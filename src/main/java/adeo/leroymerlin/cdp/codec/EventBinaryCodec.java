@@ -0,0 +1,207 @@
+package adeo.leroymerlin.cdp.codec;
+
+import adeo.leroymerlin.cdp.dto.BandDTO;
+import adeo.leroymerlin.cdp.dto.EventDTO;
+import adeo.leroymerlin.cdp.dto.MemberDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact schema-based binary encoding of the search results, the fields of {@link EventDTO} being serialized
+ * as in JSON but without their names.
+ * <p>
+ * Every distinct string is written once in a leading table and referenced by its index afterwards,
+ * so that the band and member names repeated across the events cost a few bytes each.
+ * Integers are written as unsigned LEB128 varints. The layout is:
+ * <pre>
+ * payload = magic "CDPE", version, string count, strings, event count, events
+ * string  = byte length, UTF-8 bytes
+ * event   = title ref, imgUrl ref, matched, band count + 1 (0 for null), bands
+ * band    = name ref, matched, member count + 1 (0 for null), members
+ * member  = name ref, matched
+ * </pre>
+ * A string reference is the index of the string in the table plus one, 0 standing for null.
+ */
+public final class EventBinaryCodec {
+
+    public static final String MEDIA_TYPE = "application/vnd.cdp.events";
+
+    private static final byte[] MAGIC = {'C', 'D', 'P', 'E'};
+    private static final int VERSION = 1;
+
+    private EventBinaryCodec() {
+    }
+
+    /**
+     * Encodes the given events.
+     *
+     * @param events the events to encode
+     * @return the binary payload
+     */
+    public static byte[] encode(Collection<EventDTO> events) {
+        Map<String, Integer> strings = new HashMap<>();
+        List<String> table = new ArrayList<>();
+        Output body = new Output();
+        body.writeVarint(events.size());
+        for (EventDTO event : events) {
+            body.writeVarint(reference(event.getTitle(), strings, table));
+            body.writeVarint(reference(event.getImgUrl(), strings, table));
+            body.write(event.isMatched() ? 1 : 0);
+            body.writeVarint(event.getBands() == null ? 0 : event.getBands().size() + 1);
+            if (event.getBands() != null) {
+                for (BandDTO band : event.getBands()) {
+                    body.writeVarint(reference(band.getName(), strings, table));
+                    body.write(band.isMatched() ? 1 : 0);
+                    body.writeVarint(band.getMembers() == null ? 0 : band.getMembers().size() + 1);
+                    if (band.getMembers() != null) {
+                        for (MemberDTO member : band.getMembers()) {
+                            body.writeVarint(reference(member.getName(), strings, table));
+                            body.write(member.isMatched() ? 1 : 0);
+                        }
+                    }
+                }
+            }
+        }
+
+        Output out = new Output();
+        out.writeBytes(MAGIC);
+        out.write(VERSION);
+        out.writeVarint(table.size());
+        for (String string : table) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeVarint(bytes.length);
+            out.writeBytes(bytes);
+        }
+        body.writeTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a payload produced by {@link #encode(Collection)}.
+     *
+     * @param payload the binary payload
+     * @return the decoded events, in their encoding order
+     * @throws IllegalArgumentException if the payload is not a valid payload of this version
+     */
+    public static List<EventDTO> decode(byte[] payload) {
+        Input in = new Input(payload);
+        for (byte b : MAGIC) {
+            if (in.read() != b) {
+                throw new IllegalArgumentException("Not an event payload");
+            }
+        }
+        int version = in.read();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported event payload version: " + version);
+        }
+        String[] table = new String[in.readVarint()];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = in.readString(in.readVarint());
+        }
+        int eventCount = in.readVarint();
+        List<EventDTO> events = new ArrayList<>(eventCount);
+        for (int e = 0; e < eventCount; e++) {
+            String title = dereference(in.readVarint(), table);
+            String imgUrl = dereference(in.readVarint(), table);
+            boolean eventMatched = in.read() == 1;
+            int bandCount = in.readVarint() - 1;
+            Set<BandDTO> bands = null;
+            if (bandCount >= 0) {
+                bands = LinkedHashSet.newLinkedHashSet(bandCount);
+                for (int b = 0; b < bandCount; b++) {
+                    String name = dereference(in.readVarint(), table);
+                    boolean bandMatched = in.read() == 1;
+                    int memberCount = in.readVarint() - 1;
+                    Set<MemberDTO> members = null;
+                    if (memberCount >= 0) {
+                        members = LinkedHashSet.newLinkedHashSet(memberCount);
+                        for (int m = 0; m < memberCount; m++) {
+                            members.add(new MemberDTO(dereference(in.readVarint(), table), in.read() == 1));
+                        }
+                    }
+                    bands.add(new BandDTO(name, members, bandMatched));
+                }
+            }
+            events.add(new EventDTO(null, title, imgUrl, bands, eventMatched));
+        }
+        return events;
+    }
+
+    private static int reference(String value, Map<String, Integer> strings, List<String> table) {
+        if (value == null) {
+            return 0;
+        }
+        return strings.computeIfAbsent(value, v -> {
+            table.add(v);
+            return table.size();
+        });
+    }
+
+    private static String dereference(int reference, String[] table) {
+        if (reference < 0 || reference > table.length) {
+            throw new IllegalArgumentException("Invalid string reference: " + reference);
+        }
+        return reference == 0 ? null : table[reference - 1];
+    }
+
+    private static final class Output extends ByteArrayOutputStream {
+
+        void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        void writeTo(Output out) {
+            out.write(buf, 0, count);
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] bytes;
+        private int position;
+
+        Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int read() {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("Truncated event payload");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = read();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in event payload");
+        }
+
+        String readString(int length) {
+            if (length < 0 || length > bytes.length - position) {
+                throw new IllegalArgumentException("Truncated event payload");
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
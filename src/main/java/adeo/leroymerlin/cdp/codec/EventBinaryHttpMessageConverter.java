@@ -0,0 +1,97 @@
+package adeo.leroymerlin.cdp.codec;
+
+import adeo.leroymerlin.cdp.dto.CursorPage;
+import adeo.leroymerlin.cdp.dto.EventDTO;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes the collections and the pages of {@link EventDTO} in the {@link EventBinaryCodec} format when the client
+ * asks for it. The items of a page are encoded as a collection, its next cursor being sent in the
+ * {@value #NEXT_CURSOR_HEADER} header.
+ * <p>
+ * A collection or a page returned through a {@code ResponseEntity<?>} has no resolvable element type,
+ * its elements are then checked when written.
+ */
+public class EventBinaryHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    /**
+     * Header holding the cursor of the next page of a binary page, absent on the last page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public EventBinaryHttpMessageConverter() {
+        super(MediaType.valueOf(EventBinaryCodec.MEDIA_TYPE));
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!supports(clazz) || !canWrite(mediaType)) {
+            return false;
+        }
+        if (type == null) {
+            return true;
+        }
+        ResolvableType resolvableType = ResolvableType.forType(type);
+        ResolvableType element = CursorPage.class.isAssignableFrom(clazz)
+                ? resolvableType.as(CursorPage.class).getGeneric()
+                : resolvableType.asCollection().getGeneric();
+        return element == ResolvableType.NONE || element.resolve(Object.class) == Object.class
+                || EventDTO.class.isAssignableFrom(element.resolve(Object.class));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Collection.class.isAssignableFrom(clazz) || CursorPage.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        Collection<?> events;
+        if (body instanceof CursorPage<?> page) {
+            events = page.items();
+            if (page.nextCursor() != null) {
+                outputMessage.getHeaders().set(NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+        } else {
+            events = (Collection<?>) body;
+        }
+        List<EventDTO> checkedEvents = new ArrayList<>(events.size());
+        for (Object event : events) {
+            if (!(event instanceof EventDTO eventDTO)) {
+                throw new HttpMessageNotWritableException("Only events can be encoded as " + EventBinaryCodec.MEDIA_TYPE);
+            }
+            checkedEvents.add(eventDTO);
+        }
+        outputMessage.getBody().write(EventBinaryCodec.encode(checkedEvents));
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("Event payloads are only written", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+            throws HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("Event payloads are only written", inputMessage);
+    }
+}
@@ -1,14 +1,15 @@
 package adeo.leroymerlin.cdp.config;
 
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import adeo.leroymerlin.cdp.cache.BoundedCacheManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig {
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("events");
+    public BoundedCacheManager cacheManager(CacheProperties cacheProperties) {
+        return new BoundedCacheManager(cacheProperties);
     }
 }
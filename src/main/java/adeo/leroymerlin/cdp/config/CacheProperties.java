@@ -0,0 +1,33 @@
+package adeo.leroymerlin.cdp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Configuration of the application caches, bound from the {@code cdp.cache} properties.
+ *
+ * @param defaults the specification applied to the caches that are not explicitly configured
+ * @param caches   the specification of each named cache
+ */
+@ConfigurationProperties(prefix = "cdp.cache")
+public record CacheProperties(@DefaultValue Spec defaults, Map<String, Spec> caches) {
+
+    public CacheProperties {
+        caches = caches == null ? Map.of() : Map.copyOf(caches);
+    }
+
+    /**
+     * Bounds of a single cache.
+     *
+     * @param maximumWeight     the maximum total weight of the entries, a collection weighs its size, any other value weighs 1
+     * @param timeToLive        the duration after which an entry expires, no expiry when zero
+     * @param refreshAfterWrite the duration after which an entry is reloaded by the next reader, no refresh when zero
+     */
+    public record Spec(@DefaultValue("1000") long maximumWeight,
+                       @DefaultValue("0s") Duration timeToLive,
+                       @DefaultValue("0s") Duration refreshAfterWrite) {
+    }
+}
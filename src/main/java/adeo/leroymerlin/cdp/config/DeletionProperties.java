@@ -0,0 +1,30 @@
+package adeo.leroymerlin.cdp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the event deletions, bound from the {@code cdp.deletion} properties.
+ *
+ * @param mode           whether deleted events are removed at once or tombstoned and purged later
+ * @param purgeBatchSize the number of tombstoned events purged per transaction
+ * @param purgeRetention the duration a tombstoned event is kept before being purged
+ */
+@ConfigurationProperties(prefix = "cdp.deletion")
+public record DeletionProperties(@DefaultValue("hard") Mode mode,
+                                 @DefaultValue("500") int purgeBatchSize,
+                                 @DefaultValue("0s") Duration purgeRetention) {
+
+    public enum Mode {
+        /**
+         * The event rows and their join rows are deleted by the request.
+         */
+        HARD,
+        /**
+         * The event rows are tombstoned by the request and purged in the background.
+         */
+        SOFT
+    }
+}
@@ -0,0 +1,20 @@
+package adeo.leroymerlin.cdp.config;
+
+import adeo.leroymerlin.cdp.codec.EventBinaryHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class EncodingConfig implements WebMvcConfigurer {
+
+    /**
+     * Appended after the JSON converter, so that JSON stays the encoding of the clients accepting any media type.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new EventBinaryHttpMessageConverter());
+    }
+}
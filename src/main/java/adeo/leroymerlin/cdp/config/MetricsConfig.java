@@ -0,0 +1,30 @@
+package adeo.leroymerlin.cdp.config;
+
+import adeo.leroymerlin.cdp.metrics.InstrumentedDataSourcePostProcessor;
+import adeo.leroymerlin.cdp.metrics.MetricsRegistry;
+import adeo.leroymerlin.cdp.metrics.RequestMetricsFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Static so that the post processor is registered without instantiating this configuration early.
+     */
+    @Bean
+    public static InstrumentedDataSourcePostProcessor instrumentedDataSourcePostProcessor(
+            ObjectProvider<MetricsRegistry> metricsRegistry) {
+        return new InstrumentedDataSourcePostProcessor(metricsRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilter(MetricsRegistry metricsRegistry) {
+        FilterRegistrationBean<RequestMetricsFilter> registration = new FilterRegistrationBean<>(new RequestMetricsFilter(metricsRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,27 @@
+package adeo.leroymerlin.cdp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Page size limits of the paginated endpoints, bound from the {@code cdp.pagination} properties.
+ *
+ * @param defaultSize the page size used when none is requested
+ * @param maxSize     the largest page size served, larger requested sizes are capped
+ */
+@ConfigurationProperties(prefix = "cdp.pagination")
+public record PaginationProperties(@DefaultValue("20") int defaultSize, @DefaultValue("100") int maxSize) {
+
+    /**
+     * Returns the page size to serve for the requested one.
+     *
+     * @param requestedSize the requested page size, or null
+     * @return the default size if none is requested, otherwise the requested size bounded to {@code [1, maxSize]}
+     */
+    public int pageSize(Integer requestedSize) {
+        if (requestedSize == null) {
+            return defaultSize;
+        }
+        return Math.max(1, Math.min(requestedSize, maxSize));
+    }
+}
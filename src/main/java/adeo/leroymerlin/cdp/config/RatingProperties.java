@@ -0,0 +1,16 @@
+package adeo.leroymerlin.cdp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the event ratings, bound from the {@code cdp.ratings} properties.
+ *
+ * @param writeBehind    whether the ratings are buffered in memory and written to the database in batches,
+ *                       instead of one transaction per rating
+ * @param flushThreshold the number of buffered events triggering a flush before the next scheduled one
+ */
+@ConfigurationProperties(prefix = "cdp.ratings")
+public record RatingProperties(@DefaultValue("false") boolean writeBehind,
+                               @DefaultValue("1000") int flushThreshold) {
+}
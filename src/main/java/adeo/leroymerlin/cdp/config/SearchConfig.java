@@ -0,0 +1,28 @@
+package adeo.leroymerlin.cdp.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+@Configuration
+@EnableConfigurationProperties(SearchProperties.class)
+public class SearchConfig {
+
+    /**
+     * Pool dedicated to the parallel scans of the columnar search, so that they neither compete with the tasks
+     * of the common pool nor use more threads than configured, whatever the number of concurrent searches.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "cdp.search.engine", havingValue = "columnar")
+    public ForkJoinPool searchPool(SearchProperties searchProperties) {
+        return new ForkJoinPool(searchProperties.poolParallelism(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("search-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+}
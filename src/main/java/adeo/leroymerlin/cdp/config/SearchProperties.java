@@ -0,0 +1,42 @@
+package adeo.leroymerlin.cdp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the parallel execution of the columnar search, bound from the {@code cdp.search} properties.
+ *
+ * @param parallelism       the number of threads of the search pool, 0 for the number of available processors
+ * @param parallelThreshold the minimal number of titles and names of the catalogue for a search to be split,
+ *                          smaller catalogues being scanned by the request thread
+ * @param maxTasks          the maximal number of tasks a search is split into, bounding the cores used by a request,
+ *                          0 for the parallelism of the pool
+ * @param timeBudget        the time after which a search gives up, bounding with {@code maxTasks} the CPU time
+ *                          used by a request, 0 for no limit
+ */
+@ConfigurationProperties(prefix = "cdp.search")
+public record SearchProperties(@DefaultValue("0") int parallelism,
+                               @DefaultValue("100000") int parallelThreshold,
+                               @DefaultValue("0") int maxTasks,
+                               @DefaultValue("1s") Duration timeBudget) {
+
+    /**
+     * Returns the number of threads of the search pool.
+     *
+     * @return the configured parallelism, or the number of available processors
+     */
+    public int poolParallelism() {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Returns the number of tasks a search is split into.
+     *
+     * @return the configured maximum, at most the parallelism of the pool
+     */
+    public int tasksPerSearch() {
+        return maxTasks > 0 ? Math.min(maxTasks, poolParallelism()) : poolParallelism();
+    }
+}
@@ -0,0 +1,16 @@
+package adeo.leroymerlin.cdp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the bulk seed import, bound from the {@code cdp.seed} properties.
+ *
+ * @param location  the directory holding one {@code <table>.csv} file per table, such as {@code classpath:seed/},
+ *                  or null to keep the seed of {@code data.sql}
+ * @param batchSize the number of rows sent per JDBC batch
+ */
+@ConfigurationProperties(prefix = "cdp.seed")
+public record SeedProperties(String location,
+                             @DefaultValue("1000") int batchSize) {
+}
@@ -0,0 +1,25 @@
+package adeo.leroymerlin.cdp.controller;
+
+import adeo.leroymerlin.cdp.cache.BoundedCacheManager;
+import adeo.leroymerlin.cdp.cache.CacheStatistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collection;
+
+@RestController
+@RequestMapping("/api/caches")
+public class CacheController {
+
+    private final BoundedCacheManager cacheManager;
+
+    public CacheController(BoundedCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @GetMapping(value = "/")
+    public Collection<CacheStatistics> findCacheStatistics() {
+        return cacheManager.getStatistics();
+    }
+}
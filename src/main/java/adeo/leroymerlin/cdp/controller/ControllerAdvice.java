@@ -1,7 +1,12 @@
 package adeo.leroymerlin.cdp.controller;
 
 import adeo.leroymerlin.cdp.dto.ErrorResponse;
+import adeo.leroymerlin.cdp.exception.InvalidCursorException;
+import adeo.leroymerlin.cdp.exception.InvalidRequestException;
+import adeo.leroymerlin.cdp.exception.PreconditionFailedException;
 import adeo.leroymerlin.cdp.exception.ResourceNotFoundException;
+import adeo.leroymerlin.cdp.exception.SearchTimeoutException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -19,6 +24,36 @@ public class ControllerAdvice {
         return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursorException(InvalidCursorException e) {
+        ErrorResponse error = new ErrorResponse(e.getMessage(), "invalid_cursor");
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidRequestException(InvalidRequestException e) {
+        ErrorResponse error = new ErrorResponse(e.getMessage(), "invalid_request");
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailedException(PreconditionFailedException e) {
+        ErrorResponse error = new ErrorResponse(e.getMessage(), "precondition_failed");
+        return new ResponseEntity<>(error, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(SearchTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleSearchTimeoutException(SearchTimeoutException e) {
+        ErrorResponse error = new ErrorResponse(e.getMessage(), "search_timeout");
+        return new ResponseEntity<>(error, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        ErrorResponse error = new ErrorResponse("The event was modified concurrently", "conflict");
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<ErrorResponse> handleHttpMessageNotReadableException(HttpMessageNotReadableException e) {
         ErrorResponse error = new ErrorResponse(e.getMessage(), "invalid_body_format");
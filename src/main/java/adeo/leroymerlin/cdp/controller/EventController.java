@@ -1,30 +1,156 @@
 package adeo.leroymerlin.cdp.controller;
 
+import adeo.leroymerlin.cdp.dto.CursorPage;
 import adeo.leroymerlin.cdp.dto.EventDTO;
+import adeo.leroymerlin.cdp.dto.EventDeletionDTO;
+import adeo.leroymerlin.cdp.dto.EventReviewDTO;
+import adeo.leroymerlin.cdp.dto.EventReviewResultDTO;
+import adeo.leroymerlin.cdp.dto.RatingDTO;
 import adeo.leroymerlin.cdp.entity.Event;
+import adeo.leroymerlin.cdp.exception.InvalidRequestException;
+import adeo.leroymerlin.cdp.exception.PreconditionFailedException;
+import adeo.leroymerlin.cdp.mapper.DtoMapper;
+import adeo.leroymerlin.cdp.readmodel.EventCatalog;
+import adeo.leroymerlin.cdp.readmodel.EventProjection;
+import adeo.leroymerlin.cdp.readmodel.EventView;
+import adeo.leroymerlin.cdp.repository.EventRating;
+import adeo.leroymerlin.cdp.search.Suggestion;
 import adeo.leroymerlin.cdp.service.EventService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/events")
 public class EventController {
 
     private final EventService eventService;
+    private final ObjectWriter writer;
+    private final long compressionThreshold;
 
-    public EventController(EventService eventService) {
+    public EventController(EventService eventService, ObjectMapper objectMapper,
+                           @Value("${server.compression.min-response-size:2KB}") DataSize compressionThreshold) {
         this.eventService = eventService;
+        this.writer = objectMapper.writer();
+        this.compressionThreshold = compressionThreshold.toBytes();
     }
 
+    /**
+     * Returns all the events, or a page of them when a cursor or a size is given,
+     * reduced to the projection selected by the view: summary, bands or full (the default).
+     * A listing above the compression threshold is sent gzipped to the clients accepting it,
+     * from the compression kept with the snapshot.
+     */
     @GetMapping(value = "/")
-    public List<Event> findEvents() {
-        return eventService.getEvents();
+    public ResponseEntity<?> findEvents(@RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer size,
+                                        @RequestParam(required = false) String view,
+                                        WebRequest request) {
+        EventProjection projection = EventProjection.of(view);
+        if (cursor != null || size != null) {
+            return ResponseEntity.ok(eventService.getEvents(cursor, size, projection));
+        }
+        EventCatalog catalog = eventService.getEvents();
+        byte[] json = catalog.json(projection);
+        boolean gzip = json.length >= compressionThreshold && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? gzipEtag(catalog.etag(projection)) : catalog.etag(projection);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(catalog.gzip(projection));
+        }
+        return response.body(json);
     }
 
+    /**
+     * Streams all the events as newline-delimited JSON, each event being written as soon as it is read.
+     */
+    @GetMapping(value = "/", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamEvents(@RequestParam(required = false) String view) {
+        EventProjection projection = EventProjection.of(view);
+        StreamingResponseBody body = out -> eventService.streamEvents(event -> {
+            try {
+                out.write(writer.writeValueAsBytes(projection.project(event)));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Returns all the events filtered by the query, most relevant first, the most relevant ones when a limit is given,
+     * or a page of them ordered by id when a cursor or a size is given. A limit cannot be combined with a page.
+     * The events are encoded in binary for the clients asking for {@code application/vnd.cdp.events}.
+     */
     @GetMapping(value = "/search/{query}")
-    public List<EventDTO> findEvents(@PathVariable String query) {
-        return eventService.getFilteredEvents(query);
+    public ResponseEntity<?> findEvents(@PathVariable String query,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer size,
+                                        @RequestParam(required = false) Integer limit) {
+        if (limit != null && (cursor != null || size != null)) {
+            throw new InvalidRequestException("Limit cannot be combined with a cursor or a size");
+        }
+        if (cursor != null || size != null) {
+            return ResponseEntity.ok(eventService.getFilteredEvents(query, cursor, size));
+        }
+        if (limit != null) {
+            return ResponseEntity.ok(eventService.getFilteredEvents(query, limit));
+        }
+        return ResponseEntity.ok(eventService.getFilteredEvents(query));
+    }
+
+    /**
+     * Returns the band and member names completing the typed prefix, for search-as-you-type.
+     */
+    @GetMapping(value = "/suggest")
+    public List<Suggestion> suggest(@RequestParam String prefix, @RequestParam(required = false) Integer limit) {
+        return eventService.suggest(prefix, limit);
+    }
+
+    /**
+     * Asynchronous variant of the paginated listing, releasing the request thread while the page is loaded.
+     */
+    @GetMapping(value = "/async/")
+    public CompletableFuture<CursorPage<EventView>> findEventsAsync(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size) {
+        return eventService.getEventsAsync(cursor, size);
+    }
+
+    /**
+     * Asynchronous variant of the search, releasing the request thread while the events are filtered.
+     */
+    @GetMapping(value = "/async/search/{query}")
+    public CompletableFuture<List<EventDTO>> findEventsAsync(@PathVariable String query) {
+        return eventService.getFilteredEventsAsync(query);
+    }
+
+    /**
+     * Deletes the events matching the given criteria, returning their ids.
+     */
+    @PostMapping(value = "/deletions")
+    public List<Long> deleteEvents(@RequestBody EventDeletionDTO criteria) {
+        return eventService.deleteEvents(criteria);
     }
 
     @DeleteMapping(value = "/{id}")
@@ -32,8 +158,107 @@ public class EventController {
         eventService.delete(id);
     }
 
+    /**
+     * Applies a batch of reviews, returning the result of each one.
+     */
+    @PutMapping(value = "/reviews")
+    public List<EventReviewResultDTO> updateReviews(@RequestBody List<EventReviewDTO> reviews) {
+        return eventService.updateReviews(reviews);
+    }
+
+    /**
+     * Returns the event with the given id, with its version as ETag.
+     */
+    @GetMapping(value = "/{id}")
+    public ResponseEntity<EventView> findEvent(@PathVariable Long id) {
+        Event event = eventService.getEvent(id);
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(event.getVersion()))
+                .body(DtoMapper.toEventView(event));
+    }
+
+    /**
+     * Updates the review of the event, only if it still has the version given in {@code If-Match} when present.
+     */
     @PutMapping(value = "/{id}")
-    public void updateEvent(@PathVariable Long id, @RequestBody Event event) {
-        eventService.updateEvent(id, event);
+    public ResponseEntity<Void> updateEvent(@PathVariable Long id, @RequestBody Event event,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long version = eventService.updateEvent(id, event, toVersion(ifMatch));
+        return version == null ? ResponseEntity.ok().build() : ResponseEntity.ok().eTag(version.toString()).build();
+    }
+
+    /**
+     * Adds a rating to the event, only if it still has the version given in {@code If-Match} when present.
+     * A rating buffered in write-behind mode is accepted without ETag, its version being not yet known.
+     */
+    @PostMapping(value = "/{id}/ratings")
+    public ResponseEntity<EventRating> rateEvent(@PathVariable Long id, @RequestBody RatingDTO rating,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        EventRating eventRating = eventService.rate(id, rating.getStars(), toVersion(ifMatch));
+        if (eventRating.version() == null) {
+            return ResponseEntity.accepted().body(eventRating);
+        }
+        return ResponseEntity.ok()
+                .eTag(eventRating.version().toString())
+                .body(eventRating);
+    }
+
+    /**
+     * Tells whether an {@code Accept-Encoding} header accepts gzip, that is lists it or {@code *} without a zero quality.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        Boolean any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            boolean accepted = true;
+            for (int i = 1; i < parts.length; i++) {
+                if (parts[i].trim().matches("q=0(\\.0*)?")) {
+                    accepted = false;
+                }
+            }
+            if (name.equalsIgnoreCase("gzip")) {
+                gzip = accepted;
+            } else if (name.equals("*")) {
+                any = accepted;
+            }
+        }
+        // An explicit gzip coding prevails over *, whatever their order
+        return gzip != null ? gzip : Boolean.TRUE.equals(any);
+    }
+
+    /**
+     * Derives the ETag of the gzipped representation, distinct from the one of the identity representation.
+     */
+    private static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    /**
+     * Converts an {@code If-Match} header into the expected version of an event.
+     *
+     * {@code If-Match} uses the strong comparison, a weak ETag never matches.
+     *
+     * @param ifMatch the header value, a quoted version, {@code *} or null
+     * @return the expected version, or null if any version matches
+     * @throws PreconditionFailedException if the header holds no version of an event or a weak ETag
+     */
+    private static Long toVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String etag = ifMatch.trim();
+        if (etag.startsWith("W/")) {
+            throw new PreconditionFailedException("Weak ETags cannot be used for If-Match: " + ifMatch);
+        }
+        try {
+            return Long.valueOf(etag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("Unknown ETag: " + ifMatch);
+        }
     }
 }
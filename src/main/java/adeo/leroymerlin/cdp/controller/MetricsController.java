@@ -0,0 +1,37 @@
+package adeo.leroymerlin.cdp.controller;
+
+import adeo.leroymerlin.cdp.metrics.MetricsRegistry;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain;version=0.0.4;charset=utf-8";
+
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsController(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    /**
+     * Returns the count, mean, percentiles and maximum of each latency and size histogram.
+     */
+    @GetMapping(value = "/")
+    public Map<String, MetricsRegistry.HistogramSummary> findHistogramSummaries() {
+        return metricsRegistry.summaries();
+    }
+
+    /**
+     * Returns every metric in the Prometheus text exposition format.
+     */
+    @GetMapping(value = "/prometheus", produces = PROMETHEUS_CONTENT_TYPE)
+    public String scrape() {
+        return metricsRegistry.scrape();
+    }
+}
@@ -1,26 +1,51 @@
 package adeo.leroymerlin.cdp.dto;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collections;
 import java.util.Objects;
 import java.util.Set;
 
-public class BandDTO {
-    private String name;
-    private Set<MemberDTO> members;
+/**
+ * Immutable band of an event in the search results, shareable between the events that contain it.
+ * Its hash code is computed once instead of hashing its members on every insertion in the set of an event.
+ */
+public final class BandDTO {
+    private final String name;
+    private final Set<MemberDTO> members;
+    /**
+     * Whether the name matches the search query, only serialized when true.
+     */
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private final boolean matched;
+    private final int hash;
+
+    /**
+     * @param name    the name of the band
+     * @param members the members of the band, owned by the DTO and no longer modified by the caller
+     * @param matched whether the name matches the search query
+     */
+    @JsonCreator
+    public BandDTO(@JsonProperty("name") String name, @JsonProperty("members") Set<MemberDTO> members,
+                   @JsonProperty("matched") boolean matched) {
+        this.name = name;
+        this.members = members == null ? null : Collections.unmodifiableSet(members);
+        this.matched = matched;
+        this.hash = Objects.hash(name, members, matched);
+    }
 
     public String getName() {
         return name;
     }
 
-    public void setName(String name) {
-        this.name = name;
-    }
-
     public Set<MemberDTO> getMembers() {
         return members;
     }
 
-    public void setMembers(Set<MemberDTO> members) {
-        this.members = members;
+    public boolean isMatched() {
+        return matched;
     }
 
     @Override
@@ -28,11 +53,11 @@ public class BandDTO {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         BandDTO bandDTO = (BandDTO) o;
-        return Objects.equals(name, bandDTO.name) && Objects.equals(members, bandDTO.members);
+        return hash == bandDTO.hash && matched == bandDTO.matched && Objects.equals(name, bandDTO.name) && Objects.equals(members, bandDTO.members);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, members);
+        return hash;
     }
 }
@@ -0,0 +1,63 @@
+package adeo.leroymerlin.cdp.dto;
+
+import adeo.leroymerlin.cdp.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page of a listing ordered by id, with the opaque cursor of the next page.
+ *
+ * @param items      the items of the page
+ * @param nextCursor the cursor to request the next page with, or null on the last page
+ * @param <T>        the type of the items
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public CursorPage {
+        items = List.copyOf(items);
+    }
+
+    /**
+     * Creates a page from the given items.
+     *
+     * @param items   the items of the page, ordered by id
+     * @param hasNext whether items follow this page
+     * @param idOf    the function returning the id of an item
+     * @param <T>     the type of the items
+     * @return the page, pointing after its last item if items follow it
+     */
+    public static <T> CursorPage<T> of(List<T> items, boolean hasNext, Function<T, Long> idOf) {
+        return new CursorPage<>(items, hasNext && !items.isEmpty() ? encode(idOf.apply(items.getLast())) : null);
+    }
+
+    /**
+     * Encodes the cursor pointing after the given id.
+     *
+     * @param lastId the id of the last item of a page
+     * @return the opaque cursor
+     */
+    public static String encode(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a cursor into the id after which the page starts.
+     *
+     * @param cursor the opaque cursor, or null for the first page
+     * @return the id of the last item of the previous page, or {@link Long#MIN_VALUE} for the first page
+     * @throws InvalidCursorException if the cursor was not issued by {@link #encode(Long)}
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -1,36 +1,83 @@
 package adeo.leroymerlin.cdp.dto;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collections;
 import java.util.Objects;
 import java.util.Set;
 
+/**
+ * Immutable event of the search results, safely shared by the cached results.
+ * Its hash code is computed once from the cached hash codes of its bands.
+ */
+public final class EventDTO {
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private final Long id;
+    private final String title;
+    private final String imgUrl;
+    private final Set<BandDTO> bands;
+    /**
+     * Whether the title matches the search query, only serialized when true.
+     */
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private final boolean matched;
+    /**
+     * Relevance of a search result computed by the search engine, used to rank the results and not serialized.
+     */
+    @JsonIgnore
+    private final int relevance;
+    private final int hash;
 
-public class EventDTO {
-    private String title;
-    private String imgUrl;
-    private Set<BandDTO> bands;
-
-    public String getTitle() {
-        return title;
+    @JsonCreator
+    public EventDTO(@JsonProperty("id") Long id, @JsonProperty("title") String title,
+                    @JsonProperty("imgUrl") String imgUrl, @JsonProperty("bands") Set<BandDTO> bands,
+                    @JsonProperty("matched") boolean matched) {
+        this(id, title, imgUrl, bands, matched, 0);
     }
 
-    public void setTitle(String title) {
+    /**
+     * @param id        the id of the event
+     * @param title     the title of the event
+     * @param imgUrl    the image of the event
+     * @param bands     the bands of the event, owned by the DTO and no longer modified by the caller
+     * @param matched   whether the title matches the search query
+     * @param relevance the relevance of the search result
+     */
+    public EventDTO(Long id, String title, String imgUrl, Set<BandDTO> bands, boolean matched, int relevance) {
+        this.id = id;
         this.title = title;
+        this.imgUrl = imgUrl;
+        this.bands = bands == null ? null : Collections.unmodifiableSet(bands);
+        this.matched = matched;
+        this.relevance = relevance;
+        this.hash = Objects.hash(id, title, imgUrl, bands, matched);
     }
 
-    public String getImgUrl() {
-        return imgUrl;
+    public Long getId() {
+        return id;
     }
 
-    public void setImgUrl(String imgUrl) {
-        this.imgUrl = imgUrl;
+    public String getTitle() {
+        return title;
+    }
+
+    public String getImgUrl() {
+        return imgUrl;
     }
 
     public Set<BandDTO> getBands() {
         return bands;
     }
 
-    public void setBands(Set<BandDTO> bands) {
-        this.bands = bands;
+    public boolean isMatched() {
+        return matched;
+    }
+
+    public int getRelevance() {
+        return relevance;
     }
 
     @Override
@@ -38,11 +85,11 @@ public class EventDTO {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         EventDTO eventDTO = (EventDTO) o;
-        return Objects.equals(title, eventDTO.title) && Objects.equals(imgUrl, eventDTO.imgUrl) && Objects.equals(bands, eventDTO.bands);
+        return hash == eventDTO.hash && matched == eventDTO.matched && Objects.equals(id, eventDTO.id) && Objects.equals(title, eventDTO.title) && Objects.equals(imgUrl, eventDTO.imgUrl) && Objects.equals(bands, eventDTO.bands);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(title, imgUrl, bands);
+        return hash;
     }
 }
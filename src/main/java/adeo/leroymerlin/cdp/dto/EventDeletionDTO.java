@@ -0,0 +1,49 @@
+package adeo.leroymerlin.cdp.dto;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Criteria of a bulk deletion, the events matching every given criterion are deleted.
+ */
+public class EventDeletionDTO {
+    private List<Long> ids;
+    private String titleContains;
+
+    public EventDeletionDTO() {
+    }
+
+    public EventDeletionDTO(List<Long> ids, String titleContains) {
+        this.ids = ids;
+        this.titleContains = titleContains;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public String getTitleContains() {
+        return titleContains;
+    }
+
+    public void setTitleContains(String titleContains) {
+        this.titleContains = titleContains;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EventDeletionDTO that = (EventDeletionDTO) o;
+        return Objects.equals(ids, that.ids) && Objects.equals(titleContains, that.titleContains);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ids, titleContains);
+    }
+}
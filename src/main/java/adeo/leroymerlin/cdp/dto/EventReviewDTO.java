@@ -0,0 +1,55 @@
+package adeo.leroymerlin.cdp.dto;
+
+import java.util.Objects;
+
+public class EventReviewDTO {
+    private Long id;
+    private Integer nbStars;
+    private String comment;
+
+    public EventReviewDTO() {
+    }
+
+    public EventReviewDTO(Long id, Integer nbStars, String comment) {
+        this.id = id;
+        this.nbStars = nbStars;
+        this.comment = comment;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getNbStars() {
+        return nbStars;
+    }
+
+    public void setNbStars(Integer nbStars) {
+        this.nbStars = nbStars;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EventReviewDTO that = (EventReviewDTO) o;
+        return Objects.equals(id, that.id) && Objects.equals(nbStars, that.nbStars) && Objects.equals(comment, that.comment);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, nbStars, comment);
+    }
+}
@@ -0,0 +1,49 @@
+package adeo.leroymerlin.cdp.dto;
+
+import java.util.Objects;
+
+public class EventReviewResultDTO {
+    private Long id;
+    private Status status;
+
+    public EventReviewResultDTO() {
+    }
+
+    public EventReviewResultDTO(Long id, Status status) {
+        this.id = id;
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EventReviewResultDTO that = (EventReviewResultDTO) o;
+        return Objects.equals(id, that.id) && status == that.status;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, status);
+    }
+
+    public enum Status {
+        UPDATED, NOT_FOUND
+    }
+}
@@ -1,16 +1,37 @@
 package adeo.leroymerlin.cdp.dto;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import java.util.Objects;
 
-public class MemberDTO {
-    private String name;
+/**
+ * Immutable member of a band in the search results, shareable between the bands and events that contain it.
+ * Its hash code is computed once, the DTOs being inserted in the hash sets of their band.
+ */
+public final class MemberDTO {
+    private final String name;
+    /**
+     * Whether the name matches the search query, only serialized when true.
+     */
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private final boolean matched;
+    private final int hash;
+
+    @JsonCreator
+    public MemberDTO(@JsonProperty("name") String name, @JsonProperty("matched") boolean matched) {
+        this.name = name;
+        this.matched = matched;
+        this.hash = Objects.hash(name, matched);
+    }
 
     public String getName() {
         return name;
     }
 
-    public void setName(String name) {
-        this.name = name;
+    public boolean isMatched() {
+        return matched;
     }
 
     @Override
@@ -18,11 +39,11 @@ public class MemberDTO {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         MemberDTO memberDTO = (MemberDTO) o;
-        return Objects.equals(name, memberDTO.name);
+        return hash == memberDTO.hash && matched == memberDTO.matched && Objects.equals(name, memberDTO.name);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(name);
+        return hash;
     }
 }
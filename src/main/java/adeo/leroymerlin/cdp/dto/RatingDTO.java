@@ -0,0 +1,35 @@
+package adeo.leroymerlin.cdp.dto;
+
+import java.util.Objects;
+
+public class RatingDTO {
+    private Integer stars;
+
+    public RatingDTO() {
+    }
+
+    public RatingDTO(Integer stars) {
+        this.stars = stars;
+    }
+
+    public Integer getStars() {
+        return stars;
+    }
+
+    public void setStars(Integer stars) {
+        this.stars = stars;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RatingDTO ratingDTO = (RatingDTO) o;
+        return Objects.equals(stars, ratingDTO.stars);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(stars);
+    }
+}
@@ -1,9 +1,12 @@
 package adeo.leroymerlin.cdp.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.SQLRestriction;
+
 import java.util.Set;
 
 @Entity
+@SQLRestriction("deleted_at is null")
 public class Event {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -13,13 +16,23 @@ public class Event {
 
     private String imgUrl;
 
-    @OneToMany(fetch = FetchType.EAGER)
+    @OneToMany(fetch = FetchType.LAZY)
     private Set<Band> bands;
 
     private Integer nbStars;
 
     private String comment;
 
+    @Version
+    private Long version;
+
+    // Only ever changed by atomic increments, never written back from the entity
+    @Column(insertable = false, updatable = false)
+    private long starTotal;
+
+    @Column(insertable = false, updatable = false)
+    private long voteCount;
+
     public Long getId() {
         return id;
     }
@@ -67,4 +80,28 @@ public class Event {
     public void setComment(String comment) {
         this.comment = comment;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public long getStarTotal() {
+        return starTotal;
+    }
+
+    public void setStarTotal(long starTotal) {
+        this.starTotal = starTotal;
+    }
+
+    public long getVoteCount() {
+        return voteCount;
+    }
+
+    public void setVoteCount(long voteCount) {
+        this.voteCount = voteCount;
+    }
 }
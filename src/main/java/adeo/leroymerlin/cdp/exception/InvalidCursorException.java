@@ -0,0 +1,7 @@
+package adeo.leroymerlin.cdp.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package adeo.leroymerlin.cdp.exception;
+
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package adeo.leroymerlin.cdp.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package adeo.leroymerlin.cdp.exception;
+
+public class SearchTimeoutException extends RuntimeException {
+    public SearchTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -6,35 +6,119 @@ import adeo.leroymerlin.cdp.dto.MemberDTO;
 import adeo.leroymerlin.cdp.entity.Band;
 import adeo.leroymerlin.cdp.entity.Event;
 import adeo.leroymerlin.cdp.entity.Member;
+import adeo.leroymerlin.cdp.readmodel.BandView;
+import adeo.leroymerlin.cdp.readmodel.EventView;
+import adeo.leroymerlin.cdp.readmodel.MemberView;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class DtoMapper {
     private DtoMapper() {
     }
 
+    /**
+     * Maps an event to a DTO, its bands and their members being ordered by id.
+     *
+     * @param event the event to map
+     * @return the DTO of the event
+     */
     public static EventDTO toEventDTO(Event event) {
-        EventDTO eventDTO = new EventDTO();
-        eventDTO.setTitle(event.getTitle());
-        eventDTO.setImgUrl(event.getImgUrl());
-        eventDTO.setBands(event.getBands().stream()
-                .map(DtoMapper::toBandDTO)
-                .collect(Collectors.toSet()));
-        return eventDTO;
+        return new EventDTO(event.getId(), event.getTitle(), event.getImgUrl(),
+                event.getBands().stream()
+                        .sorted(Comparator.comparing(Band::getId))
+                        .map(DtoMapper::toBandDTO)
+                        .collect(Collectors.toCollection(LinkedHashSet::new)),
+                false);
     }
 
     public static BandDTO toBandDTO(Band band) {
-        BandDTO bandDTO = new BandDTO();
-        bandDTO.setName(band.getName());
-        bandDTO.setMembers(band.getMembers().stream()
-                .map(DtoMapper::toMemberDTO)
-                .collect(Collectors.toSet()));
-        return bandDTO;
+        return new BandDTO(band.getName(),
+                band.getMembers().stream()
+                        .sorted(Comparator.comparing(Member::getId))
+                        .map(DtoMapper::toMemberDTO)
+                        .collect(Collectors.toCollection(LinkedHashSet::new)),
+                false);
     }
 
     public static MemberDTO toMemberDTO(Member member) {
-        MemberDTO memberDTO = new MemberDTO();
-        memberDTO.setName(member.getName());
-        return memberDTO;
+        return new MemberDTO(member.getName(), false);
+    }
+
+    public static EventView toEventView(Event event) {
+        return new EventView(event.getId(), event.getTitle(), event.getImgUrl(),
+                event.getBands().stream()
+                        .sorted(Comparator.comparing(Band::getId))
+                        .map(DtoMapper::toBandView)
+                        .toList(),
+                event.getNbStars(), event.getComment(), event.getStarTotal(), event.getVoteCount());
+    }
+
+    public static BandView toBandView(Band band) {
+        return new BandView(band.getId(), band.getName(),
+                band.getMembers().stream()
+                        .sorted(Comparator.comparing(Member::getId))
+                        .map(DtoMapper::toMemberView)
+                        .toList());
+    }
+
+    public static MemberView toMemberView(Member member) {
+        return new MemberView(member.getId(), member.getName());
+    }
+
+    /**
+     * Maps the events to views sharing a single view per band and per member across the events,
+     * the repeated names and images being interned, so that a catalogue holds each band once whatever
+     * the number of events it plays at.
+     *
+     * @param events the events to map
+     * @return the views of the events, in the same order
+     */
+    public static List<EventView> toEventViews(Collection<Event> events) {
+        SharedMapping mapping = new SharedMapping();
+        List<EventView> views = new ArrayList<>(events.size());
+        for (Event event : events) {
+            views.add(new EventView(event.getId(), event.getTitle(), mapping.intern(event.getImgUrl()),
+                    event.getBands().stream()
+                            .sorted(Comparator.comparing(Band::getId))
+                            .map(mapping::toBandView)
+                            .toList(),
+                    event.getNbStars(), event.getComment(), event.getStarTotal(), event.getVoteCount()));
+        }
+        return views;
+    }
+
+    /**
+     * Mapping of a batch of events, remembering the band and member views already built by id
+     * and the strings already seen, the interning being local to the batch rather than JVM-wide.
+     */
+    private static final class SharedMapping {
+        private final Map<String, String> strings = new HashMap<>();
+        private final Map<Long, BandView> bandViews = new HashMap<>();
+        private final Map<Long, MemberView> memberViews = new HashMap<>();
+
+        private String intern(String value) {
+            return value == null ? null : strings.computeIfAbsent(value, v -> v);
+        }
+
+        private BandView toBandView(Band band) {
+            BandView view = bandViews.get(band.getId());
+            if (view == null) {
+                view = new BandView(band.getId(), intern(band.getName()),
+                        band.getMembers().stream()
+                                .sorted(Comparator.comparing(Member::getId))
+                                .map(member -> memberViews.computeIfAbsent(member.getId(),
+                                        id -> new MemberView(id, intern(member.getName()))))
+                                .toList());
+                bandViews.put(band.getId(), view);
+            }
+            return view;
+        }
     }
 }
@@ -0,0 +1,124 @@
+package adeo.leroymerlin.cdp.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram counting the recorded values into fixed buckets, along with their sum and maximum.
+ * Values are recorded in a base unit (nanoseconds, items) and reported divided by the unit of the histogram.
+ * <p>
+ * Percentiles are estimated by linear interpolation inside the bucket holding the requested rank,
+ * their precision is bounded by the width of the buckets.
+ */
+public final class Histogram {
+
+    /**
+     * Upper bounds of the latency buckets in nanoseconds, from 100 microseconds to 10 seconds.
+     */
+    static final long[] LATENCY_BOUNDS_NANOS = {
+            100_000L, 250_000L, 500_000L,
+            1_000_000L, 2_500_000L, 5_000_000L,
+            10_000_000L, 25_000_000L, 50_000_000L,
+            100_000_000L, 250_000_000L, 500_000_000L,
+            1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L};
+
+    /**
+     * Upper bounds of the size buckets.
+     */
+    static final long[] SIZE_BOUNDS = {0, 1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000};
+
+    private final long[] bounds;
+    private final double unit;
+    private final LongAdder[] buckets;
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    Histogram(long[] bounds, double unit) {
+        this.bounds = bounds;
+        this.unit = unit;
+        this.buckets = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value the value in the base unit of the histogram, negative values are recorded as zero
+     */
+    public void record(long value) {
+        long recorded = Math.max(0, value);
+        int index = Arrays.binarySearch(bounds, recorded);
+        buckets[index < 0 ? -index - 1 : index].increment();
+        sum.add(recorded);
+        max.accumulate(recorded);
+    }
+
+    /**
+     * Records the time elapsed since the given instant.
+     *
+     * @param startNanos the start instant, as returned by {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns a snapshot of this histogram. Buckets are read one by one while values keep being recorded,
+     * so the snapshot may be slightly inconsistent under load, which is acceptable for monitoring.
+     *
+     * @return the current counts of the histogram
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[buckets.length];
+        long count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        return new Snapshot(bounds, unit, counts, count, sum.sum(), max.get());
+    }
+
+    /**
+     * Point-in-time counts of a histogram.
+     *
+     * @param bounds the upper bounds of the buckets in the base unit, an overflow bucket follows the last bound
+     * @param unit   the divisor converting the base unit to the reported unit
+     * @param counts the number of values in each bucket, not cumulative
+     * @param count  the number of recorded values
+     * @param sum    the sum of the recorded values in the base unit
+     * @param max    the maximum recorded value in the base unit
+     */
+    public record Snapshot(long[] bounds, double unit, long[] counts, long count, long sum, long max) {
+
+        /**
+         * Estimates a percentile of the recorded values.
+         *
+         * @param quantile the quantile, between 0 and 1
+         * @return the estimated value in the reported unit, 0 if nothing was recorded
+         */
+        public double percentile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0 && cumulative + counts[i] >= rank) {
+                    long lower = i == 0 ? 0 : bounds[i - 1];
+                    long upper = i < bounds.length ? Math.min(bounds[i], max) : max;
+                    double position = (double) (rank - cumulative) / counts[i];
+                    return (lower + position * Math.max(0, upper - lower)) / unit;
+                }
+                cumulative += counts[i];
+            }
+            return max / unit;
+        }
+
+        public double mean() {
+            return count == 0 ? 0 : sum / unit / count;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package adeo.leroymerlin.cdp.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Data source counting the statements prepared on its connections and timing the connection acquisition.
+ * <p>
+ * Both the JPA and the JDBC repositories go through it, so the counts cover every statement of the application.
+ * A thread can additionally count its own statements between {@link #startCounting()} and {@link #stopCounting()},
+ * which is how the statements of a request are counted. A JDBC batch counts as one statement.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("prepareStatement", "prepareCall", "createStatement");
+    private static final ThreadLocal<long[]> THREAD_STATEMENTS = new ThreadLocal<>();
+
+    private final LongAdder statements = new LongAdder();
+    private final Histogram connectionAcquisition;
+
+    public InstrumentedDataSource(DataSource targetDataSource, MetricsRegistry metricsRegistry) {
+        super(targetDataSource);
+        this.connectionAcquisition = metricsRegistry.timer("cdp_jdbc_connection_acquire_seconds");
+        metricsRegistry.counter("cdp_jdbc_statements_total", statements::sum);
+    }
+
+    /**
+     * Starts counting the statements prepared by the current thread.
+     */
+    public static void startCounting() {
+        THREAD_STATEMENTS.set(new long[1]);
+    }
+
+    /**
+     * Stops counting the statements prepared by the current thread.
+     *
+     * @return the number of statements prepared since {@link #startCounting()}, 0 if the counting was not started
+     */
+    public static long stopCounting() {
+        long[] count = THREAD_STATEMENTS.get();
+        THREAD_STATEMENTS.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection();
+        connectionAcquisition.recordSince(start);
+        return instrument(connection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        connectionAcquisition.recordSince(start);
+        return instrument(connection);
+    }
+
+    private Connection instrument(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (STATEMENT_FACTORIES.contains(method.getName())) {
+                        statements.increment();
+                        long[] threadStatements = THREAD_STATEMENTS.get();
+                        if (threadStatements != null) {
+                            threadStatements[0]++;
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
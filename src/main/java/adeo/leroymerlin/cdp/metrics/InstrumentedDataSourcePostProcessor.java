@@ -0,0 +1,27 @@
+package adeo.leroymerlin.cdp.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the data sources of the context into an {@link InstrumentedDataSource}.
+ * The registry is looked up lazily since a post processor is created before the regular beans.
+ */
+public class InstrumentedDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MetricsRegistry> metricsRegistry;
+
+    public InstrumentedDataSourcePostProcessor(ObjectProvider<MetricsRegistry> metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource)) {
+            return new InstrumentedDataSource(dataSource, metricsRegistry.getObject());
+        }
+        return bean;
+    }
+}
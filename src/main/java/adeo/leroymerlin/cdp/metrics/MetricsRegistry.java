@@ -0,0 +1,189 @@
+package adeo.leroymerlin.cdp.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Registry of the application metrics, exported in the Prometheus text exposition format.
+ * <p>
+ * Histograms are resolved once by their name and tags and then recorded without any lookup,
+ * gauges and counters are functions sampled when the metrics are scraped.
+ * Tags are given as alternating keys and values.
+ */
+@Component
+public class MetricsRegistry {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final ConcurrentHashMap<MetricId, Histogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<MetricId, Sampled> sampled = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the latency histogram with the given name and tags, recorded in nanoseconds and reported in seconds.
+     *
+     * @param name the name of the metric, conventionally suffixed with {@code _seconds}
+     * @param tags the tags as alternating keys and values
+     * @return the histogram, created on first use
+     */
+    public Histogram timer(String name, String... tags) {
+        return histograms.computeIfAbsent(MetricId.of(name, tags),
+                id -> new Histogram(Histogram.LATENCY_BOUNDS_NANOS, NANOS_PER_SECOND));
+    }
+
+    /**
+     * Returns the size distribution with the given name and tags.
+     *
+     * @param name the name of the metric
+     * @param tags the tags as alternating keys and values
+     * @return the histogram, created on first use
+     */
+    public Histogram distribution(String name, String... tags) {
+        return histograms.computeIfAbsent(MetricId.of(name, tags), id -> new Histogram(Histogram.SIZE_BOUNDS, 1));
+    }
+
+    /**
+     * Registers a gauge sampled on each scrape, replacing any gauge with the same name and tags.
+     *
+     * @param name  the name of the metric
+     * @param value the function returning the current value
+     * @param tags  the tags as alternating keys and values
+     */
+    public void gauge(String name, DoubleSupplier value, String... tags) {
+        sampled.put(MetricId.of(name, tags), new Sampled("gauge", value));
+    }
+
+    /**
+     * Registers a monotonic counter maintained elsewhere and sampled on each scrape.
+     *
+     * @param name  the name of the metric, conventionally suffixed with {@code _total}
+     * @param value the function returning the current count
+     * @param tags  the tags as alternating keys and values
+     */
+    public void counter(String name, DoubleSupplier value, String... tags) {
+        sampled.put(MetricId.of(name, tags), new Sampled("counter", value));
+    }
+
+    /**
+     * Returns a summary of every histogram, keyed on its name and tags.
+     *
+     * @return the count, mean, percentiles and maximum of each histogram
+     */
+    public Map<String, HistogramSummary> summaries() {
+        Map<String, HistogramSummary> summaries = new TreeMap<>();
+        histograms.forEach((id, histogram) -> {
+            Histogram.Snapshot snapshot = histogram.snapshot();
+            summaries.put(id.name() + id.labels(null), new HistogramSummary(snapshot.count(), snapshot.mean(),
+                    snapshot.percentile(0.5), snapshot.percentile(0.95), snapshot.percentile(0.99),
+                    snapshot.max() / snapshot.unit()));
+        });
+        return summaries;
+    }
+
+    /**
+     * Renders every metric in the Prometheus text exposition format, version 0.0.4.
+     *
+     * @return the scraped metrics
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(8192);
+        String family = null;
+        for (Map.Entry<MetricId, Sampled> entry : sorted(sampled)) {
+            MetricId id = entry.getKey();
+            if (!id.name().equals(family)) {
+                family = id.name();
+                out.append("# TYPE ").append(family).append(' ').append(entry.getValue().type()).append('\n');
+            }
+            out.append(id.name()).append(id.labels(null)).append(' ')
+                    .append(format(entry.getValue().value().getAsDouble())).append('\n');
+        }
+        family = null;
+        for (Map.Entry<MetricId, Histogram> entry : sorted(histograms)) {
+            MetricId id = entry.getKey();
+            if (!id.name().equals(family)) {
+                family = id.name();
+                out.append("# TYPE ").append(family).append(" histogram\n");
+            }
+            Histogram.Snapshot snapshot = entry.getValue().snapshot();
+            long cumulative = 0;
+            for (int i = 0; i < snapshot.counts().length; i++) {
+                cumulative += snapshot.counts()[i];
+                String upperBound = i < snapshot.bounds().length ? format(snapshot.bounds()[i] / snapshot.unit()) : "+Inf";
+                out.append(id.name()).append("_bucket").append(id.labels(upperBound)).append(' ').append(cumulative).append('\n');
+            }
+            out.append(id.name()).append("_sum").append(id.labels(null)).append(' ')
+                    .append(format(snapshot.sum() / snapshot.unit())).append('\n');
+            out.append(id.name()).append("_count").append(id.labels(null)).append(' ').append(snapshot.count()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static <T> List<Map.Entry<MetricId, T>> sorted(Map<MetricId, T> metrics) {
+        List<Map.Entry<MetricId, T>> entries = new ArrayList<>(metrics.entrySet());
+        entries.sort(Map.Entry.comparingByKey(Comparator.comparing(MetricId::name).thenComparing(id -> id.labels(null))));
+        return entries;
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Summary of a histogram, in its reported unit.
+     */
+    public record HistogramSummary(long count, double mean, double p50, double p95, double p99, double max) {
+    }
+
+    private record Sampled(String type, DoubleSupplier value) {
+    }
+
+    /**
+     * Identity of a metric, its tags are kept in the given order.
+     */
+    private record MetricId(String name, List<String> tags) {
+
+        static MetricId of(String name, String... tags) {
+            if (tags.length % 2 != 0) {
+                throw new IllegalArgumentException("Tags of " + name + " must be pairs of keys and values");
+            }
+            return new MetricId(name, List.of(tags));
+        }
+
+        /**
+         * Renders the tags as Prometheus labels, with an optional {@code le} label for histogram buckets.
+         */
+        String labels(String upperBound) {
+            if (tags.isEmpty() && upperBound == null) {
+                return "";
+            }
+            StringBuilder labels = new StringBuilder("{");
+            for (int i = 0; i < tags.size(); i += 2) {
+                if (i > 0) {
+                    labels.append(',');
+                }
+                labels.append(tags.get(i)).append("=\"").append(escape(tags.get(i + 1))).append('"');
+            }
+            if (upperBound != null) {
+                labels.append(tags.isEmpty() ? "" : ",").append("le=\"").append(upperBound).append('"');
+            }
+            return labels.append('}').toString();
+        }
+
+        private static String escape(String value) {
+            return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package adeo.leroymerlin.cdp.metrics;
+
+import adeo.leroymerlin.cdp.cache.BoundedCacheManager;
+import adeo.leroymerlin.cdp.cache.CacheStatistics;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.function.LongSupplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Exposes the statistics of the caches, of Hibernate and of the connection pool as sampled metrics.
+ * They are bound once the application is ready, when the caches created by the components exist.
+ */
+@Component
+public class PersistenceMetrics {
+
+    private final MetricsRegistry metricsRegistry;
+    private final BoundedCacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+
+    public PersistenceMetrics(MetricsRegistry metricsRegistry, BoundedCacheManager cacheManager,
+                              EntityManagerFactory entityManagerFactory, DataSource dataSource) {
+        this.metricsRegistry = metricsRegistry;
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bind() throws SQLException {
+        for (String cacheName : cacheManager.getCacheNames()) {
+            bindCache(cacheName);
+        }
+        bindHibernate(entityManagerFactory.unwrap(SessionFactory.class).getStatistics());
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            bindPool(dataSource.unwrap(HikariDataSource.class));
+        }
+    }
+
+    private void bindCache(String cacheName) {
+        cacheCounter("cdp_cache_hits_total", cacheName, CacheStatistics::hitCount);
+        cacheCounter("cdp_cache_misses_total", cacheName, CacheStatistics::missCount);
+        cacheCounter("cdp_cache_evictions_total", cacheName, CacheStatistics::evictionCount);
+        cacheGauge("cdp_cache_hit_ratio", cacheName, CacheStatistics::hitRatio);
+        cacheGauge("cdp_cache_size", cacheName, CacheStatistics::size);
+        cacheGauge("cdp_cache_weight", cacheName, CacheStatistics::weight);
+    }
+
+    private void cacheCounter(String name, String cacheName, ToLongFunction<CacheStatistics> statistic) {
+        metricsRegistry.counter(name, () -> statistic.applyAsLong(cacheManager.getCache(cacheName).getStatistics()),
+                "cache", cacheName);
+    }
+
+    private void cacheGauge(String name, String cacheName, ToDoubleFunction<CacheStatistics> statistic) {
+        metricsRegistry.gauge(name, () -> statistic.applyAsDouble(cacheManager.getCache(cacheName).getStatistics()),
+                "cache", cacheName);
+    }
+
+    /**
+     * Requires {@code hibernate.generate_statistics}, the counters otherwise stay at zero.
+     */
+    private void bindHibernate(Statistics statistics) {
+        hibernateCounter("statement_prepare", statistics::getPrepareStatementCount);
+        hibernateCounter("query_execution", statistics::getQueryExecutionCount);
+        hibernateCounter("entity_load", statistics::getEntityLoadCount);
+        hibernateCounter("entity_fetch", statistics::getEntityFetchCount);
+        hibernateCounter("entity_update", statistics::getEntityUpdateCount);
+        hibernateCounter("collection_load", statistics::getCollectionLoadCount);
+        hibernateCounter("collection_fetch", statistics::getCollectionFetchCount);
+        hibernateCounter("flush", statistics::getFlushCount);
+        hibernateCounter("session_open", statistics::getSessionOpenCount);
+        hibernateCounter("transaction", statistics::getTransactionCount);
+        hibernateCounter("optimistic_failure", statistics::getOptimisticFailureCount);
+        metricsRegistry.gauge("cdp_jpa_query_max_seconds", () -> statistics.getQueryExecutionMaxTime() / 1000d);
+    }
+
+    private void hibernateCounter(String operation, LongSupplier count) {
+        metricsRegistry.counter("cdp_jpa_operations_total", count::getAsLong, "operation", operation);
+    }
+
+    private void bindPool(HikariDataSource pool) {
+        poolGauge("active", pool, HikariPoolMXBean::getActiveConnections);
+        poolGauge("idle", pool, HikariPoolMXBean::getIdleConnections);
+        poolGauge("total", pool, HikariPoolMXBean::getTotalConnections);
+        poolGauge("pending", pool, HikariPoolMXBean::getThreadsAwaitingConnection);
+        metricsRegistry.gauge("cdp_datasource_connections_max", pool::getMaximumPoolSize, "pool", pool.getPoolName());
+    }
+
+    /**
+     * The pool bean of a lazily started pool is null until the first connection, the gauge then reports 0.
+     */
+    private void poolGauge(String state, HikariDataSource pool, ToLongFunction<HikariPoolMXBean> statistic) {
+        metricsRegistry.gauge("cdp_datasource_connections", () -> {
+            HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+            return poolBean == null ? 0 : statistic.applyAsLong(poolBean);
+        }, "pool", pool.getPoolName(), "state", state);
+    }
+}
@@ -0,0 +1,103 @@
+package adeo.leroymerlin.cdp.metrics;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records the latency of each request, tagged with its method, route pattern and status,
+ * and the number of SQL statements it prepared, tagged with its method and route pattern.
+ * <p>
+ * An asynchronous request is timed until its completion, but only the statements prepared
+ * by the request thread are counted, the work done on the task executor is not attributed to the request.
+ * An asynchronous request that times out or fails is recorded once, when that happens, with the status 503 or 500.
+ */
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+    private final MetricsRegistry metricsRegistry;
+
+    public RequestMetricsFilter(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        InstrumentedDataSource.startCounting();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            long statements = InstrumentedDataSource.stopCounting();
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(start, statements));
+            } else {
+                record(request, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(), start, statements);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int status, long start, long statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern == null ? UNMATCHED_ROUTE : pattern.toString();
+        metricsRegistry.timer("cdp_http_server_requests_seconds",
+                "method", request.getMethod(), "uri", route, "status", Integer.toString(status)).recordSince(start);
+        metricsRegistry.distribution("cdp_http_server_sql_statements",
+                "method", request.getMethod(), "uri", route).record(statements);
+    }
+
+    private final class CompletionListener implements AsyncListener {
+
+        private final long start;
+        private final long statements;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+
+        private CompletionListener(long start, long statements) {
+            this.start = start;
+            this.statements = statements;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            recordOnce(event, ((HttpServletResponse) event.getSuppliedResponse()).getStatus());
+        }
+
+        /**
+         * Records a timed out request, the container still completing it afterwards.
+         */
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            recordOnce(event, HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+
+        /**
+         * Records a failed request, the container still completing it afterwards.
+         */
+        @Override
+        public void onError(AsyncEvent event) {
+            recordOnce(event, HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void recordOnce(AsyncEvent event, int status) {
+            if (recorded.compareAndSet(false, true)) {
+                record((HttpServletRequest) event.getSuppliedRequest(), status, start, statements);
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package adeo.leroymerlin.cdp.readmodel;
+
+/**
+ * Projection of a band without its members.
+ *
+ * @param id   the id of the band
+ * @param name the name of the band
+ */
+public record BandSummaryView(Long id, String name) {
+}
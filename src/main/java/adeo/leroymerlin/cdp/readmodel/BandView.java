@@ -0,0 +1,17 @@
+package adeo.leroymerlin.cdp.readmodel;
+
+import java.util.List;
+
+/**
+ * Immutable view of a band in the read model.
+ *
+ * @param id      the id of the band
+ * @param name    the name of the band
+ * @param members the members of the band, ordered by id
+ */
+public record BandView(Long id, String name, List<MemberView> members) {
+
+    public BandView {
+        members = List.copyOf(members);
+    }
+}
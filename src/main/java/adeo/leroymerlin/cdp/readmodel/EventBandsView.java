@@ -0,0 +1,37 @@
+package adeo.leroymerlin.cdp.readmodel;
+
+import adeo.leroymerlin.cdp.repository.EventSummaryView;
+
+import java.util.List;
+
+/**
+ * Projection of an event with the names of its bands but without their members.
+ *
+ * @param id        the id of the event
+ * @param title     the title of the event
+ * @param imgUrl    the image of the event
+ * @param bands     the bands playing at the event, ordered by id
+ * @param nbStars   the rating of the event
+ * @param comment   the review of the event
+ * @param starTotal the sum of the stars of the ratings of the event
+ * @param voteCount the number of ratings of the event
+ */
+public record EventBandsView(Long id, String title, String imgUrl, List<BandSummaryView> bands, Integer nbStars,
+                             String comment, long starTotal, long voteCount) {
+
+    public EventBandsView {
+        bands = List.copyOf(bands);
+    }
+
+    /**
+     * Creates the projection of an event summary with the given bands.
+     *
+     * @param event the summary of the event
+     * @param bands the bands playing at the event, ordered by id
+     * @return the event with its bands
+     */
+    public static EventBandsView of(EventSummaryView event, List<BandSummaryView> bands) {
+        return new EventBandsView(event.id(), event.title(), event.imgUrl(), bands, event.nbStars(), event.comment(),
+                event.starTotal(), event.voteCount());
+    }
+}
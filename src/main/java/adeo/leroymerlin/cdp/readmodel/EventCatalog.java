@@ -0,0 +1,271 @@
+package adeo.leroymerlin.cdp.readmodel;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable snapshot of the event listing, holding the views of the events along with their JSON payload and its ETag.
+ * Each event is serialized once, a modified catalogue is derived copy-on-write and only re-serializes the modified event.
+ */
+public final class EventCatalog {
+
+    private static final Comparator<EventView> BY_ID = Comparator.comparing(EventView::id);
+
+    private final List<EventView> events;
+    private final List<byte[]> eventPayloads;
+    private final Map<EventProjection, List<byte[]>> projectedEventPayloads;
+    private final ObjectWriter writer;
+    private final byte[] json;
+    private final String etag;
+    private final Map<EventProjection, Payload> projectedPayloads = new ConcurrentHashMap<>();
+    private final Map<EventProjection, byte[]> gzippedPayloads = new ConcurrentHashMap<>();
+
+    private EventCatalog(List<EventView> events, List<byte[]> eventPayloads,
+                         Map<EventProjection, List<byte[]>> projectedEventPayloads, ObjectWriter writer) {
+        this.events = Collections.unmodifiableList(events);
+        this.eventPayloads = eventPayloads;
+        this.projectedEventPayloads = projectedEventPayloads;
+        this.writer = writer;
+        this.json = joinPayloads(eventPayloads);
+        this.etag = etagOf(json);
+    }
+
+    /**
+     * Creates a catalogue from the given events.
+     *
+     * @param events the views of the events
+     * @param writer the writer used to serialize the events
+     * @return the catalogue of the events ordered by id
+     */
+    public static EventCatalog of(List<EventView> events, ObjectWriter writer) {
+        List<EventView> sortedEvents = new ArrayList<>(events);
+        sortedEvents.sort(BY_ID);
+        List<byte[]> payloads = new ArrayList<>(sortedEvents.size());
+        for (EventView event : sortedEvents) {
+            payloads.add(serialize(event, writer));
+        }
+        return new EventCatalog(sortedEvents, payloads, new ConcurrentHashMap<>(), writer);
+    }
+
+    /**
+     * Returns a copy of this catalogue without the given events, copying the catalogue once whatever their number.
+     *
+     * @param ids the ids of the removed events
+     * @return the new catalogue, or this one if it contains none of the events
+     */
+    public EventCatalog without(Collection<Long> ids) {
+        Set<Long> removedIds = Set.copyOf(ids);
+        List<EventView> newEvents = new ArrayList<>(events.size());
+        List<byte[]> newPayloads = new ArrayList<>(events.size());
+        Map<EventProjection, List<byte[]>> newProjectedPayloads = new ConcurrentHashMap<>();
+        projectedEventPayloads.forEach((projection, payloads) ->
+                newProjectedPayloads.put(projection, new ArrayList<>(events.size())));
+        for (int i = 0; i < events.size(); i++) {
+            if (!removedIds.contains(events.get(i).id())) {
+                newEvents.add(events.get(i));
+                newPayloads.add(eventPayloads.get(i));
+                for (Map.Entry<EventProjection, List<byte[]>> projected : newProjectedPayloads.entrySet()) {
+                    projected.getValue().add(projectedEventPayloads.get(projected.getKey()).get(i));
+                }
+            }
+        }
+        return newEvents.size() == events.size()
+                ? this
+                : new EventCatalog(newEvents, newPayloads, newProjectedPayloads, writer);
+    }
+
+    /**
+     * Returns a copy of this catalogue where the event with the same id is replaced by the given one.
+     *
+     * @param event the new view of the event
+     * @return the new catalogue, or this one if it does not contain the event
+     */
+    public EventCatalog with(EventView event) {
+        return with(List.of(event));
+    }
+
+    /**
+     * Returns a copy of this catalogue where the events with the same ids are replaced by the given ones,
+     * copying the catalogue once whatever the number of replaced events.
+     *
+     * @param replacedEvents the new views of the events
+     * @return the new catalogue, or this one if it contains none of the events
+     */
+    public EventCatalog with(Collection<EventView> replacedEvents) {
+        List<EventView> newEvents = null;
+        List<byte[]> newPayloads = null;
+        Map<EventProjection, List<byte[]>> newProjectedPayloads = null;
+        for (EventView event : replacedEvents) {
+            int index = indexOf(event.id());
+            if (index < 0) {
+                continue;
+            }
+            if (newEvents == null) {
+                newEvents = new ArrayList<>(events);
+                newPayloads = new ArrayList<>(eventPayloads);
+                newProjectedPayloads = new ConcurrentHashMap<>();
+                for (Map.Entry<EventProjection, List<byte[]>> projected : projectedEventPayloads.entrySet()) {
+                    newProjectedPayloads.put(projected.getKey(), new ArrayList<>(projected.getValue()));
+                }
+            }
+            newEvents.set(index, event);
+            newPayloads.set(index, serialize(event, writer));
+            for (Map.Entry<EventProjection, List<byte[]>> projected : newProjectedPayloads.entrySet()) {
+                projected.getValue().set(index, serialize(projected.getKey().project(event), writer));
+            }
+        }
+        return newEvents == null ? this : new EventCatalog(newEvents, newPayloads, newProjectedPayloads, writer);
+    }
+
+    /**
+     * Returns the event with the given id.
+     *
+     * @param id the id of the event
+     * @return the event, or null if the catalogue does not contain it
+     */
+    public EventView find(Long id) {
+        int index = indexOf(id);
+        return index < 0 ? null : events.get(index);
+    }
+
+    public List<EventView> events() {
+        return events;
+    }
+
+    /**
+     * Returns the JSON array of the events. The returned array is shared and must not be modified.
+     *
+     * @return the serialized events
+     */
+    public byte[] json() {
+        return json;
+    }
+
+    public String etag() {
+        return etag;
+    }
+
+    /**
+     * Returns the JSON array of the events reduced to the given projection.
+     * Each event is serialized in a projection on the first request of that projection, the derived catalogues
+     * keep these per-event payloads and only re-serialize the modified events. The returned array is shared
+     * and must not be modified.
+     *
+     * @param projection the projection of the events
+     * @return the serialized projected events
+     */
+    public byte[] json(EventProjection projection) {
+        return projection == EventProjection.FULL ? json : projectedPayload(projection).json();
+    }
+
+    /**
+     * Returns the ETag of the JSON array of the events reduced to the given projection.
+     *
+     * @param projection the projection of the events
+     * @return the ETag of the serialized projected events
+     */
+    public String etag(EventProjection projection) {
+        return projection == EventProjection.FULL ? etag : projectedPayload(projection).etag();
+    }
+
+    /**
+     * Returns the gzip compression of the JSON array of the events reduced to the given projection.
+     * It is compressed on its first request and kept with this snapshot, so that the listing polled
+     * by the consumers is compressed once per change instead of once per response.
+     * The returned array is shared and must not be modified.
+     *
+     * @param projection the projection of the events
+     * @return the compressed serialized projected events
+     */
+    public byte[] gzip(EventProjection projection) {
+        return gzippedPayloads.computeIfAbsent(projection, p -> compress(json(p)));
+    }
+
+    private Payload projectedPayload(EventProjection projection) {
+        return projectedPayloads.computeIfAbsent(projection, p -> {
+            byte[] projectedJson = joinPayloads(projectedEventPayloads.computeIfAbsent(p, this::serializeAll));
+            return new Payload(projectedJson, etagOf(projectedJson));
+        });
+    }
+
+    private List<byte[]> serializeAll(EventProjection projection) {
+        List<byte[]> payloads = new ArrayList<>(events.size());
+        for (EventView event : events) {
+            payloads.add(serialize(projection.project(event), writer));
+        }
+        return payloads;
+    }
+
+    private int indexOf(Long id) {
+        int low = 0;
+        int high = events.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = events.get(middle).id().compareTo(id);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private static String etagOf(byte[] json) {
+        return "\"0" + DigestUtils.md5DigestAsHex(json) + "\"";
+    }
+
+    private static byte[] serialize(Object event, ObjectWriter writer) {
+        try {
+            return writer.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] compress(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] joinPayloads(List<byte[]> payloads) {
+        int size = 2 + Math.max(0, payloads.size() - 1);
+        for (byte[] payload : payloads) {
+            size += payload.length;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        out.write('[');
+        for (int i = 0; i < payloads.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(payloads.get(i));
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    private record Payload(byte[] json, String etag) {
+    }
+}
@@ -0,0 +1,63 @@
+package adeo.leroymerlin.cdp.readmodel;
+
+import adeo.leroymerlin.cdp.exception.InvalidRequestException;
+import adeo.leroymerlin.cdp.repository.EventSummaryView;
+
+import java.util.Locale;
+
+/**
+ * Level of detail of the listed events, selected with the {@code view} request parameter.
+ */
+public enum EventProjection {
+    /**
+     * The events without their bands, see {@link EventSummaryView}.
+     */
+    SUMMARY,
+    /**
+     * The events with the names of their bands, see {@link EventBandsView}.
+     */
+    BANDS,
+    /**
+     * The events with their bands and members, see {@link EventView}.
+     */
+    FULL;
+
+    /**
+     * Parses the value of the {@code view} request parameter.
+     *
+     * @param view the case-insensitive name of the projection, or null for the full events
+     * @return the projection
+     * @throws InvalidRequestException if the projection is unknown
+     */
+    public static EventProjection of(String view) {
+        if (view == null) {
+            return FULL;
+        }
+        try {
+            return valueOf(view.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Unknown view: " + view + ", expected summary, bands or full");
+        }
+    }
+
+    /**
+     * Projects an event of the read model.
+     *
+     * @param event the whole event
+     * @return the event reduced to this projection
+     */
+    public Object project(EventView event) {
+        return switch (this) {
+            case SUMMARY -> summaryOf(event);
+            case BANDS -> EventBandsView.of(summaryOf(event), event.bands().stream()
+                    .map(band -> new BandSummaryView(band.id(), band.name()))
+                    .toList());
+            case FULL -> event;
+        };
+    }
+
+    private static EventSummaryView summaryOf(EventView event) {
+        return new EventSummaryView(event.id(), event.title(), event.imgUrl(), event.nbStars(), event.comment(),
+                event.starTotal(), event.voteCount());
+    }
+}
@@ -0,0 +1,227 @@
+package adeo.leroymerlin.cdp.readmodel;
+
+import adeo.leroymerlin.cdp.change.EventChange;
+import adeo.leroymerlin.cdp.dto.EventReviewDTO;
+import adeo.leroymerlin.cdp.mapper.DtoMapper;
+import adeo.leroymerlin.cdp.repository.EventRepository;
+import adeo.leroymerlin.cdp.repository.RatingDelta;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holder of the current {@link EventCatalog} snapshot.
+ * Readers always get a complete immutable snapshot, writers publish a new snapshot derived copy-on-write.
+ * <p>
+ * The ratings buffered in write-behind mode are kept per event in a single pending map until they are flushed
+ * to the database. Since deriving a snapshot costs a pass over the whole catalogue, a rating only marks the snapshot
+ * as stale: the next read derives it once with the pending ratings overlaid, whatever the number of ratings since.
+ */
+@Component
+public class EventReadModel {
+
+    private final EventRepository eventRepository;
+    private final ObjectWriter writer;
+    private final Map<Long, RatingDelta> pendingRatings = new HashMap<>();
+
+    /**
+     * Catalogue of the events as stored in the database, without the pending ratings.
+     */
+    private volatile EventCatalog catalog;
+    /**
+     * Catalogue served to the readers, with the pending ratings overlaid, or null when it has to be derived again.
+     */
+    private volatile EventCatalog ratedCatalog;
+
+    public EventReadModel(EventRepository eventRepository, ObjectMapper objectMapper) {
+        this.eventRepository = eventRepository;
+        this.writer = objectMapper.writer();
+    }
+
+    /**
+     * Builds the catalogue in the background once the application is ready, so that neither the readiness
+     * nor the first request pay for it. A request arriving before waits for the build in progress.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        getCatalog();
+    }
+
+    /**
+     * Returns the current catalogue, including the pending ratings, loading it from the database on first access.
+     *
+     * @return the current snapshot of the events
+     */
+    public EventCatalog getCatalog() {
+        EventCatalog current = ratedCatalog;
+        if (current == null) {
+            synchronized (this) {
+                current = ratedCatalog;
+                if (current == null) {
+                    current = withPendingRatings(storedCatalog());
+                    ratedCatalog = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Applies a committed change of the catalogue to the snapshot, before the other subscribers
+     * since the suggestions are rebuilt from it.
+     *
+     * @param change the committed change
+     */
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(EventChange change) {
+        switch (change) {
+            case EventChange.Deleted deleted -> removeEvents(deleted.ids());
+            case EventChange.Reviewed reviewed -> updateReviews(reviewed.reviews());
+            case EventChange.Rated rated -> applyRating(rated.id(), rated.stars(), rated.votes());
+        }
+    }
+
+    /**
+     * Removes the given events from the catalogue, publishing a single new snapshot.
+     *
+     * @param ids the ids of the removed events
+     */
+    public synchronized void removeEvents(Collection<Long> ids) {
+        if (catalog != null) {
+            publish(catalog.without(ids));
+        }
+    }
+
+    /**
+     * Updates the reviews of the given events in the catalogue, publishing a single new snapshot.
+     *
+     * @param reviews the new reviews, a later review of the same event wins
+     */
+    public synchronized void updateReviews(Collection<EventReviewDTO> reviews) {
+        if (catalog == null) {
+            return;
+        }
+        Map<Long, EventView> reviewedEvents = new LinkedHashMap<>();
+        for (EventReviewDTO review : reviews) {
+            EventView event = catalog.find(review.getId());
+            if (event != null) {
+                reviewedEvents.put(event.id(), event.withReview(review.getNbStars(), review.getComment()));
+            }
+        }
+        publish(catalog.with(reviewedEvents.values()));
+    }
+
+    /**
+     * Adds stars and votes to the rating aggregates of the given event in the catalogue.
+     *
+     * @param id    the id of the rated event
+     * @param stars the stars to add
+     * @param votes the votes to add
+     */
+    public synchronized void applyRating(Long id, long stars, long votes) {
+        if (catalog != null) {
+            EventView event = catalog.find(id);
+            if (event != null) {
+                publish(catalog.with(event.withRating(event.starTotal() + stars, event.voteCount() + votes)));
+            }
+        }
+    }
+
+    /**
+     * Adds buffered stars and votes to the pending ratings of the given event, visible from the next read
+     * of the catalogue until {@link #applyFlushedRatings} moves them to the stored catalogue.
+     *
+     * @param id    the id of the rated event
+     * @param stars the stars to add
+     * @param votes the votes to add
+     * @return the rated event, including its pending ratings, or null if the catalogue does not contain it
+     */
+    public synchronized EventView addRating(Long id, long stars, long votes) {
+        EventView event = storedCatalog().find(id);
+        if (event == null) {
+            return null;
+        }
+        RatingDelta pending = pendingRatings.merge(id, new RatingDelta(stars, votes), RatingDelta::plus);
+        ratedCatalog = null;
+        return event.withRating(event.starTotal() + pending.stars(), event.voteCount() + pending.votes());
+    }
+
+    /**
+     * Returns the ratings pending a flush to the database.
+     *
+     * @return a copy of the pending ratings per event id
+     */
+    public synchronized Map<Long, RatingDelta> pendingRatings() {
+        return Map.copyOf(pendingRatings);
+    }
+
+    /**
+     * Returns the number of events having pending ratings.
+     *
+     * @return the number of rated events not flushed yet
+     */
+    public synchronized int pendingRatingCount() {
+        return pendingRatings.size();
+    }
+
+    /**
+     * Moves ratings written to the database from the pending ratings to the stored catalogue, publishing a single
+     * new snapshot. The ratings added since they were read by {@link #pendingRatings} stay pending.
+     *
+     * @param flushedRatings the ratings written to the database per event id
+     */
+    public synchronized void applyFlushedRatings(Map<Long, RatingDelta> flushedRatings) {
+        List<EventView> ratedEvents = new ArrayList<>(flushedRatings.size());
+        flushedRatings.forEach((id, delta) -> {
+            pendingRatings.computeIfPresent(id, (eventId, pending) -> {
+                RatingDelta remaining = pending.minus(delta);
+                return remaining.votes() == 0 ? null : remaining;
+            });
+            EventView event = catalog.find(id);
+            if (event != null) {
+                ratedEvents.add(event.withRating(event.starTotal() + delta.stars(), event.voteCount() + delta.votes()));
+            }
+        });
+        publish(catalog.with(ratedEvents));
+    }
+
+    private EventCatalog storedCatalog() {
+        if (catalog == null) {
+            catalog = EventCatalog.of(DtoMapper.toEventViews(eventRepository.findAllWithBandsAndMembers()), writer);
+        }
+        return catalog;
+    }
+
+    private void publish(EventCatalog newCatalog) {
+        catalog = newCatalog;
+        ratedCatalog = null;
+    }
+
+    private EventCatalog withPendingRatings(EventCatalog stored) {
+        if (pendingRatings.isEmpty()) {
+            return stored;
+        }
+        List<EventView> ratedEvents = new ArrayList<>(pendingRatings.size());
+        pendingRatings.forEach((id, delta) -> {
+            EventView event = stored.find(id);
+            if (event != null) {
+                ratedEvents.add(event.withRating(event.starTotal() + delta.stars(), event.voteCount() + delta.votes()));
+            }
+        });
+        return stored.with(ratedEvents);
+    }
+}
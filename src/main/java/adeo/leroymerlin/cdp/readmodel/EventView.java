@@ -0,0 +1,55 @@
+package adeo.leroymerlin.cdp.readmodel;
+
+import java.util.List;
+
+/**
+ * Immutable view of an event in the read model, serialized like the {@code Event} entity.
+ *
+ * @param id        the id of the event
+ * @param title     the title of the event
+ * @param imgUrl    the image of the event
+ * @param bands     the bands playing at the event, ordered by id
+ * @param nbStars   the rating of the event
+ * @param comment   the review of the event
+ * @param starTotal the sum of the stars of the ratings of the event
+ * @param voteCount the number of ratings of the event
+ */
+public record EventView(Long id, String title, String imgUrl, List<BandView> bands, Integer nbStars, String comment,
+                        long starTotal, long voteCount) {
+
+    public EventView {
+        bands = List.copyOf(bands);
+    }
+
+    /**
+     * Returns a copy of this event with the given review.
+     *
+     * @param nbStars the new rating
+     * @param comment the new comment
+     * @return the reviewed event
+     */
+    public EventView withReview(Integer nbStars, String comment) {
+        return new EventView(id, title, imgUrl, bands, nbStars, comment, starTotal, voteCount);
+    }
+
+    /**
+     * Returns a copy of this event with the given rating aggregates.
+     *
+     * @param starTotal the new sum of the stars
+     * @param voteCount the new number of ratings
+     * @return the rated event
+     */
+    public EventView withRating(long starTotal, long voteCount) {
+        return new EventView(id, title, imgUrl, bands, nbStars, comment, starTotal, voteCount);
+    }
+
+    /**
+     * Returns a copy of this event with the given bands.
+     *
+     * @param bands the bands playing at the event, ordered by id
+     * @return the event with the given bands
+     */
+    public EventView withBands(List<BandView> bands) {
+        return new EventView(id, title, imgUrl, bands, nbStars, comment, starTotal, voteCount);
+    }
+}
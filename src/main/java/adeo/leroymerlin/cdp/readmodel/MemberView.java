@@ -0,0 +1,10 @@
+package adeo.leroymerlin.cdp.readmodel;
+
+/**
+ * Immutable view of a band member in the read model.
+ *
+ * @param id   the id of the member
+ * @param name the name of the member
+ */
+public record MemberView(Long id, String name) {
+}
@@ -0,0 +1,11 @@
+package adeo.leroymerlin.cdp.repository;
+
+/**
+ * Flat row of a band playing at an event, without its members.
+ *
+ * @param eventId  the id of the event
+ * @param bandId   the id of the band
+ * @param bandName the name of the band
+ */
+public record EventBandRow(Long eventId, Long bandId, String bandName) {
+}
@@ -0,0 +1,280 @@
+package adeo.leroymerlin.cdp.repository;
+
+import adeo.leroymerlin.cdp.config.DeletionProperties;
+import adeo.leroymerlin.cdp.dto.EventReviewDTO;
+import adeo.leroymerlin.cdp.readmodel.BandView;
+import adeo.leroymerlin.cdp.readmodel.EventView;
+import adeo.leroymerlin.cdp.readmodel.MemberView;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access paths bypassing the persistence context, for the operations whose cost is dominated
+ * by the number of entities: streaming of the whole catalogue, batched updates and set-based deletions.
+ */
+@Repository
+public class EventJdbcRepository {
+
+    static final int FETCH_SIZE = 500;
+    static final int BATCH_SIZE = 500;
+
+    private static final String UPDATE_REVIEW = """
+            update event set nb_stars = ?, comment = ?, version = version + 1
+            where id = ? and deleted_at is null
+            """;
+
+    private static final String ADD_RATING = """
+            update event set star_total = star_total + ?, vote_count = vote_count + ?, version = version + 1
+            where id = ? and deleted_at is null
+            """;
+
+    private static final String ADD_RATING_IF_VERSION = """
+            update event set star_total = star_total + ?, vote_count = vote_count + ?, version = version + 1
+            where id = ? and deleted_at is null and version = ?
+            """;
+
+    private static final String SELECT_RATING = "select id, star_total, vote_count, version from event where id = ? and deleted_at is null";
+
+    private static final String SELECT_EVENT_GRAPH = """
+            select e.id, e.title, e.img_url, e.nb_stars, e.comment, e.star_total, e.vote_count, b.id, b.name, m.id, m.name
+            from event e
+            left join event_bands eb on eb.event_id = e.id
+            left join band b on b.id = eb.bands_id
+            left join band_members bm on bm.band_id = b.id
+            left join member m on m.id = bm.members_id
+            where e.deleted_at is null
+            order by e.id, b.id, m.id
+            """;
+
+    private static final String TOMBSTONE_EVENTS = "update event set deleted_at = current_timestamp where id in (:ids) and deleted_at is null";
+
+    private static final String DELETE_EVENTS = "delete from event where id in (:ids)";
+
+    private static final String SELECT_TOMBSTONED_IDS = "select id from event where deleted_at < ? order by id limit ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final DeletionProperties.Mode deletionMode;
+
+    public EventJdbcRepository(DataSource dataSource, DeletionProperties deletionProperties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.deletionMode = deletionProperties.mode();
+    }
+
+    /**
+     * Reads every event with its bands and members, ordered by id, and passes each one to the consumer
+     * as soon as its last row is read.
+     *
+     * @param consumer the consumer of the events
+     */
+    public void streamEvents(Consumer<EventView> consumer) {
+        EventAssembler assembler = new EventAssembler(consumer);
+        jdbcTemplate.query(SELECT_EVENT_GRAPH, assembler);
+        assembler.flushEvent();
+    }
+
+    /**
+     * Applies the given reviews with JDBC batches of {@value #BATCH_SIZE} statements, within the current transaction.
+     * The tombstoned events are left untouched and reported as not updated.
+     *
+     * @param reviews the reviews to apply
+     * @return the number of updated rows of each review, in the same order,
+     * or {@link java.sql.Statement#SUCCESS_NO_INFO} if the driver does not report it
+     */
+    public int[] updateReviews(List<EventReviewDTO> reviews) {
+        int[][] batchCounts = jdbcTemplate.batchUpdate(UPDATE_REVIEW, reviews, BATCH_SIZE, (ps, review) -> {
+            ps.setObject(1, review.getNbStars(), Types.INTEGER);
+            ps.setString(2, review.getComment());
+            ps.setObject(3, review.getId(), Types.BIGINT);
+        });
+        return Arrays.stream(batchCounts)
+                .flatMapToInt(Arrays::stream)
+                .toArray();
+    }
+
+    /**
+     * Adds stars and votes to the rating aggregates of an event with a single conditional statement,
+     * so that concurrent ratings are all accounted for without locking the event beforehand.
+     *
+     * @param id              the id of the rated event
+     * @param stars           the number of stars to add
+     * @param votes           the number of votes to add
+     * @param expectedVersion the version the event must have to be rated, or null to rate any version
+     * @return the number of updated events, 0 if the event does not exist or does not have the expected version
+     */
+    public int addRating(Long id, long stars, long votes, Long expectedVersion) {
+        return expectedVersion == null
+                ? jdbcTemplate.update(ADD_RATING, stars, votes, id)
+                : jdbcTemplate.update(ADD_RATING_IF_VERSION, stars, votes, id, expectedVersion);
+    }
+
+    /**
+     * Adds the given stars and votes to the rating aggregates of the events with JDBC batches of {@value #BATCH_SIZE} statements.
+     *
+     * @param deltas the stars and votes to add, per event id
+     */
+    public void addRatings(Map<Long, RatingDelta> deltas) {
+        jdbcTemplate.batchUpdate(ADD_RATING, deltas.entrySet(), BATCH_SIZE, (ps, delta) -> {
+            ps.setLong(1, delta.getValue().stars());
+            ps.setLong(2, delta.getValue().votes());
+            ps.setLong(3, delta.getKey());
+        });
+    }
+
+    /**
+     * Returns the rating aggregates and the version of a live event.
+     *
+     * @param id the id of the event
+     * @return the rating of the event, or empty if it does not exist
+     */
+    public Optional<EventRating> findRating(Long id) {
+        return jdbcTemplate.query(SELECT_RATING, (rs, rowNum) ->
+                        new EventRating(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)), id)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Deletes the live events matching every given criterion with a single statement, according to the deletion mode,
+     * the ids of the deleted rows being returned by the statement itself as generated keys.
+     *
+     * @param ids           the ids of the events, or null for any id
+     * @param titleContains a fragment of the title of the events, case-insensitive, or null for any title
+     * @return the ids of the deleted events, in ascending order
+     */
+    public List<Long> deleteMatching(Collection<Long> ids, String titleContains) {
+        if (ids != null && ids.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder sql = new StringBuilder(deletionMode == DeletionProperties.Mode.SOFT
+                ? "update event set deleted_at = current_timestamp where deleted_at is null"
+                : "delete from event where deleted_at is null");
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        if (ids != null) {
+            sql.append(" and id in (:ids)");
+            parameters.addValue("ids", ids);
+        }
+        if (titleContains != null) {
+            sql.append(" and position(:fragment in lower(title)) > 0");
+            parameters.addValue("fragment", titleContains.toLowerCase(Locale.ROOT));
+        }
+        KeyHolder deletedIds = new GeneratedKeyHolder();
+        namedParameterJdbcTemplate.update(sql.toString(), parameters, deletedIds, new String[]{"id"});
+        // A delete cascading to the join rows may report the same event row more than once
+        return deletedIds.getKeyList().stream()
+                .map(key -> ((Number) key.values().iterator().next()).longValue())
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Deletes the given live events with a single statement, according to the deletion mode:
+     * the rows are deleted along with their join rows, or only tombstoned and left to {@link #purgeTombstoned}.
+     *
+     * @param ids the ids of the events to delete
+     * @return the number of deleted events
+     */
+    public int deleteEvents(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String sql = deletionMode == DeletionProperties.Mode.SOFT ? TOMBSTONE_EVENTS : DELETE_EVENTS;
+        return namedParameterJdbcTemplate.update(sql, Map.of("ids", ids));
+    }
+
+    /**
+     * Purges one batch of the events tombstoned before the given instant, their join rows being deleted in cascade.
+     *
+     * @param tombstonedBefore the instant before which the purged events were tombstoned
+     * @param batchSize        the maximum number of purged events
+     * @return the number of purged events
+     */
+    public int purgeTombstoned(Instant tombstonedBefore, int batchSize) {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_TOMBSTONED_IDS, Long.class, Timestamp.from(tombstonedBefore), batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return namedParameterJdbcTemplate.update(DELETE_EVENTS, Map.of("ids", ids));
+    }
+
+    /**
+     * Folds the rows of the joined event graph, ordered by event, band and member, into event views.
+     */
+    private static final class EventAssembler implements RowCallbackHandler {
+
+        private final Consumer<EventView> consumer;
+
+        private EventView event;
+        private final List<BandView> bands = new ArrayList<>();
+        private Long bandId;
+        private String bandName;
+        private final List<MemberView> members = new ArrayList<>();
+
+        private EventAssembler(Consumer<EventView> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long eventId = rs.getLong(1);
+            if (event == null || event.id() != eventId) {
+                flushEvent();
+                event = new EventView(eventId, rs.getString(2), rs.getString(3), List.of(),
+                        rs.getObject(4, Integer.class), rs.getString(5), rs.getLong(6), rs.getLong(7));
+            }
+            Long currentBandId = rs.getObject(8, Long.class);
+            if (currentBandId == null) {
+                return;
+            }
+            if (!currentBandId.equals(bandId)) {
+                flushBand();
+                bandId = currentBandId;
+                bandName = rs.getString(9);
+            }
+            Long memberId = rs.getObject(10, Long.class);
+            if (memberId != null) {
+                members.add(new MemberView(memberId, rs.getString(11)));
+            }
+        }
+
+        private void flushBand() {
+            if (bandId != null) {
+                bands.add(new BandView(bandId, bandName, members));
+                bandId = null;
+                members.clear();
+            }
+        }
+
+        private void flushEvent() {
+            if (event != null) {
+                flushBand();
+                consumer.accept(event.withBands(bands));
+                event = null;
+                bands.clear();
+            }
+        }
+    }
+}
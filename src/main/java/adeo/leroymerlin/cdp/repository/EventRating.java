@@ -0,0 +1,12 @@
+package adeo.leroymerlin.cdp.repository;
+
+/**
+ * Rating aggregates of an event.
+ *
+ * @param id        the id of the event
+ * @param starTotal the sum of the stars of the ratings
+ * @param voteCount the number of ratings
+ * @param version   the version of the event, or null if the rating is not written yet
+ */
+public record EventRating(Long id, long starTotal, long voteCount, Long version) {
+}
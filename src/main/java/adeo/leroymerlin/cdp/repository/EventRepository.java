@@ -1,8 +1,82 @@
 package adeo.leroymerlin.cdp.repository;
 
 import adeo.leroymerlin.cdp.entity.Event;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface EventRepository extends JpaRepository<Event, Long> {}
+public interface EventRepository extends JpaRepository<Event, Long> {
+
+    /**
+     * Loads every event with its bands and their members in a single fetch-join query.
+     *
+     * @return all the events, ordered by id, with their whole band and member graph initialized
+     */
+    @Query("select distinct e from Event e left join fetch e.bands b left join fetch b.members order by e.id")
+    List<Event> findAllWithBandsAndMembers();
+
+    /**
+     * Returns the ids of the events following the given id, for keyset pagination.
+     *
+     * @param afterId the id after which the page starts, exclusive
+     * @param limit   the maximum number of ids returned
+     * @return the ids, in ascending order
+     */
+    @Query("select e.id from Event e where e.id > :afterId order by e.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Loads the given events with their bands and their members in a single fetch-join query.
+     *
+     * @param ids the ids of the events to load
+     * @return the matching events, ordered by id, with their whole band and member graph initialized
+     */
+    @Query("select distinct e from Event e left join fetch e.bands b left join fetch b.members where e.id in :ids order by e.id")
+    List<Event> findAllWithBandsAndMembersByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Selects the scalar columns of the given events, without joining their bands.
+     *
+     * @param ids the ids of the events to select
+     * @return the summaries of the matching events, ordered by id
+     */
+    @Query("""
+            select new adeo.leroymerlin.cdp.repository.EventSummaryView(e.id, e.title, e.imgUrl, e.nbStars, e.comment,
+                e.starTotal, e.voteCount)
+            from Event e where e.id in :ids order by e.id
+            """)
+    List<EventSummaryView> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Selects the bands of the given events, without joining their members.
+     *
+     * @param ids the ids of the events
+     * @return one row per band of each event, ordered by event and band id
+     */
+    @Query("select new adeo.leroymerlin.cdp.repository.EventBandRow(e.id, b.id, b.name) from Event e join e.bands b where e.id in :ids order by e.id, b.id")
+    List<EventBandRow> findBandsByEventIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Returns one flat row per member of a band of an event whose lower-cased title, band name or member name
+     * matches the given pattern. A matching title thus returns every member of the event,
+     * a matching band name every member of the band. The pattern uses {@code !} as escape character.
+     *
+     * @param pattern the lower-cased {@code LIKE} pattern
+     * @return the matching rows ordered by event, band and member name
+     */
+    @Query("""
+            select new adeo.leroymerlin.cdp.repository.NameMatchRow(e.id, e.title, e.imgUrl, b.id, b.name, m.name)
+            from Event e left join e.bands b left join b.members m
+            where lower(e.title) like :pattern escape '!'
+                or lower(b.name) like :pattern escape '!'
+                or lower(m.name) like :pattern escape '!'
+            order by e.id, b.id, m.name
+            """)
+    List<NameMatchRow> findNameMatches(@Param("pattern") String pattern);
+}
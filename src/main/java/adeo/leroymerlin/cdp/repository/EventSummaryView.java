@@ -0,0 +1,16 @@
+package adeo.leroymerlin.cdp.repository;
+
+/**
+ * Projection of an event without its bands, serialized like the read model event minus the {@code bands} field.
+ *
+ * @param id        the id of the event
+ * @param title     the title of the event
+ * @param imgUrl    the image of the event
+ * @param nbStars   the rating of the event
+ * @param comment   the review of the event
+ * @param starTotal the sum of the stars of the ratings of the event
+ * @param voteCount the number of ratings of the event
+ */
+public record EventSummaryView(Long id, String title, String imgUrl, Integer nbStars, String comment,
+                               long starTotal, long voteCount) {
+}
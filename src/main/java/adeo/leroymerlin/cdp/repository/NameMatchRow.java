@@ -0,0 +1,21 @@
+package adeo.leroymerlin.cdp.repository;
+
+/**
+ * Flat row returned by the name search query: one row per member of a band of an event,
+ * where the event title, the band name or the member name matches.
+ * The band columns are null for an event without band, the member name for a band without member.
+ *
+ * @param eventId    the id of the event
+ * @param title      the title of the event
+ * @param imgUrl     the image of the event
+ * @param bandId     the id of the band
+ * @param bandName   the name of the band
+ * @param memberName the name of the member
+ */
+public record NameMatchRow(Long eventId,
+                           String title,
+                           String imgUrl,
+                           Long bandId,
+                           String bandName,
+                           String memberName) {
+}
@@ -0,0 +1,18 @@
+package adeo.leroymerlin.cdp.repository;
+
+/**
+ * Stars and votes to add to the rating aggregates of an event.
+ *
+ * @param stars the number of stars to add
+ * @param votes the number of votes to add
+ */
+public record RatingDelta(long stars, long votes) {
+
+    public RatingDelta plus(RatingDelta other) {
+        return new RatingDelta(stars + other.stars, votes + other.votes);
+    }
+
+    public RatingDelta minus(RatingDelta other) {
+        return new RatingDelta(stars - other.stars, votes - other.votes);
+    }
+}
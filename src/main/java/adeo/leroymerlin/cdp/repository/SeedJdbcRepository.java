@@ -0,0 +1,83 @@
+package adeo.leroymerlin.cdp.repository;
+
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Plain JDBC access used to seed an empty database: schema creation and batched inserts of raw rows.
+ */
+@Repository
+public class SeedJdbcRepository {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public SeedJdbcRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Returns whether the schema has already been created, the database being reopened from its files.
+     *
+     * @return true if the event table exists
+     */
+    public boolean schemaExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (ResultSet tables = connection.getMetaData().getTables(null, null, "EVENT", new String[]{"TABLE"})) {
+                return tables.next();
+            }
+        }));
+    }
+
+    /**
+     * Runs the given DDL script.
+     *
+     * @param script the script creating the schema
+     */
+    public void createSchema(Resource script) {
+        new ResourceDatabasePopulator(script).execute(dataSource);
+    }
+
+    /**
+     * Returns whether the database holds no event yet, deleted ones included.
+     *
+     * @return true if the event table is empty
+     */
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("select id from event limit 1", Long.class).isEmpty();
+    }
+
+    /**
+     * Inserts the given rows as a single JDBC batch. The values are passed as read and converted by the driver.
+     *
+     * @param table   the name of the table
+     * @param columns the names of the columns
+     * @param rows    the values of the rows, in the order of the columns
+     * @throws IllegalArgumentException if a table or column name is not a plain identifier
+     */
+    public void insertBatch(String table, List<String> columns, List<Object[]> rows) {
+        requireIdentifier(table);
+        columns.forEach(SeedJdbcRepository::requireIdentifier);
+        String sql = "insert into " + table + " (" + String.join(", ", columns) + ") values ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+
+    private static void requireIdentifier(String name) {
+        if (!IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid identifier: " + name);
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package adeo.leroymerlin.cdp.search;
+
+import adeo.leroymerlin.cdp.dto.BandDTO;
+import adeo.leroymerlin.cdp.dto.EventDTO;
+import adeo.leroymerlin.cdp.dto.MemberDTO;
+import adeo.leroymerlin.cdp.entity.Band;
+import adeo.leroymerlin.cdp.entity.Event;
+import adeo.leroymerlin.cdp.entity.Member;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Immutable column-oriented copy of the catalogue, scanned by the columnar search engine.
+ * <p>
+ * The events are ordered by id, each band and each member is stored once whatever the number of events it plays at.
+ * The folded names of each table are concatenated in a single char array delimited by an offset array,
+ * and the bands of an event and the members of a band are index ranges of adjacency arrays (CSR layout):
+ * the bands of event {@code e} are {@code eventBands[eventBandOffsets[e] .. eventBandOffsets[e + 1])}.
+ * A search thus scans contiguous primitive arrays instead of walking the entity graph.
+ * <p>
+ * The scans and the collection of the results work on index ranges, so that they can be split between threads.
+ * A deleted event is masked rather than removed, the arrays being shared by the derived catalogue.
+ */
+public final class ColumnarCatalog {
+
+    private final long[] eventIds;
+    private final String[] titles;
+    private final String[] imgUrls;
+    private final Names foldedTitles;
+    private final int[] eventBandOffsets;
+    private final int[] eventBands;
+
+    private final String[] bandNames;
+    private final Names foldedBandNames;
+    private final int[] bandMemberOffsets;
+    private final int[] bandMembers;
+
+    private final String[] memberNames;
+    private final Names foldedMemberNames;
+
+    private final BitSet deletedEvents;
+
+    private ColumnarCatalog(long[] eventIds, String[] titles, String[] imgUrls, Names foldedTitles,
+                            int[] eventBandOffsets, int[] eventBands, String[] bandNames, Names foldedBandNames,
+                            int[] bandMemberOffsets, int[] bandMembers, String[] memberNames, Names foldedMemberNames,
+                            BitSet deletedEvents) {
+        this.eventIds = eventIds;
+        this.titles = titles;
+        this.imgUrls = imgUrls;
+        this.foldedTitles = foldedTitles;
+        this.eventBandOffsets = eventBandOffsets;
+        this.eventBands = eventBands;
+        this.bandNames = bandNames;
+        this.foldedBandNames = foldedBandNames;
+        this.bandMemberOffsets = bandMemberOffsets;
+        this.bandMembers = bandMembers;
+        this.memberNames = memberNames;
+        this.foldedMemberNames = foldedMemberNames;
+        this.deletedEvents = deletedEvents;
+    }
+
+    /**
+     * Builds the columnar copy of the given events.
+     *
+     * @param events the events with their bands and members
+     * @return the catalogue of the events ordered by id
+     */
+    public static ColumnarCatalog of(Collection<Event> events) {
+        List<Event> sortedEvents = new ArrayList<>(events);
+        sortedEvents.sort(Comparator.comparing(Event::getId));
+
+        Map<Long, Integer> bandIndexes = new HashMap<>();
+        Map<Long, Integer> memberIndexes = new HashMap<>();
+        List<Band> bands = new ArrayList<>();
+        List<Member> members = new ArrayList<>();
+
+        long[] eventIds = new long[sortedEvents.size()];
+        String[] titles = new String[sortedEvents.size()];
+        String[] imgUrls = new String[sortedEvents.size()];
+        int[] eventBandOffsets = new int[sortedEvents.size() + 1];
+        IntList eventBands = new IntList();
+        for (int e = 0; e < sortedEvents.size(); e++) {
+            Event event = sortedEvents.get(e);
+            eventIds[e] = event.getId();
+            titles[e] = event.getTitle();
+            imgUrls[e] = event.getImgUrl();
+            for (Band band : sortedById(event.getBands(), Band::getId)) {
+                eventBands.add(bandIndexes.computeIfAbsent(band.getId(), id -> {
+                    bands.add(band);
+                    return bands.size() - 1;
+                }));
+            }
+            eventBandOffsets[e + 1] = eventBands.size();
+        }
+
+        String[] bandNames = new String[bands.size()];
+        int[] bandMemberOffsets = new int[bands.size() + 1];
+        IntList bandMembers = new IntList();
+        for (int b = 0; b < bands.size(); b++) {
+            Band band = bands.get(b);
+            bandNames[b] = band.getName();
+            for (Member member : sortedById(band.getMembers(), Member::getId)) {
+                bandMembers.add(memberIndexes.computeIfAbsent(member.getId(), id -> {
+                    members.add(member);
+                    return members.size() - 1;
+                }));
+            }
+            bandMemberOffsets[b + 1] = bandMembers.size();
+        }
+
+        String[] memberNames = members.stream().map(Member::getName).toArray(String[]::new);
+        return new ColumnarCatalog(eventIds, titles, imgUrls, Names.of(titles), eventBandOffsets, eventBands.toArray(),
+                bandNames, Names.of(bandNames), bandMemberOffsets, bandMembers.toArray(), memberNames, Names.of(memberNames),
+                new BitSet());
+    }
+
+    /**
+     * Returns a copy of this catalogue masking the given events, the columns being shared with this one.
+     *
+     * @param ids the ids of the deleted events
+     * @return the new catalogue, or this one if it contains none of the events
+     */
+    public ColumnarCatalog without(Collection<Long> ids) {
+        BitSet newDeletedEvents = null;
+        for (Long id : ids) {
+            int index = Arrays.binarySearch(eventIds, id);
+            if (index >= 0 && !deletedEvents.get(index)) {
+                if (newDeletedEvents == null) {
+                    newDeletedEvents = (BitSet) deletedEvents.clone();
+                }
+                newDeletedEvents.set(index);
+            }
+        }
+        return newDeletedEvents == null ? this : new ColumnarCatalog(eventIds, titles, imgUrls, foldedTitles,
+                eventBandOffsets, eventBands, bandNames, foldedBandNames, bandMemberOffsets, bandMembers,
+                memberNames, foldedMemberNames, newDeletedEvents);
+    }
+
+    public int eventCount() {
+        return eventIds.length;
+    }
+
+    public int bandCount() {
+        return bandNames.length;
+    }
+
+    public int memberCount() {
+        return memberNames.length;
+    }
+
+    /**
+     * Creates the match qualities of a search, to be filled by the scans.
+     *
+     * @return the empty match qualities
+     */
+    public Matches newMatches() {
+        return new Matches(new int[eventIds.length], new int[bandNames.length], new int[memberNames.length],
+                new BandDTO[bandNames.length], new BandDTO[bandNames.length]);
+    }
+
+    /**
+     * Computes the match quality of the titles of a range of events.
+     *
+     * @param query   the folded query, not empty
+     * @param from    the first event index, inclusive
+     * @param to      the last event index, exclusive
+     * @param matches the qualities to fill
+     */
+    public void scanTitles(char[] query, int from, int to, Matches matches) {
+        foldedTitles.scan(query, from, to, matches.titles);
+    }
+
+    /**
+     * Computes the match quality of the names of a range of bands.
+     *
+     * @see #scanTitles(char[], int, int, Matches)
+     */
+    public void scanBandNames(char[] query, int from, int to, Matches matches) {
+        foldedBandNames.scan(query, from, to, matches.bands);
+    }
+
+    /**
+     * Computes the match quality of the names of a range of members.
+     *
+     * @see #scanTitles(char[], int, int, Matches)
+     */
+    public void scanMemberNames(char[] query, int from, int to, Matches matches) {
+        foldedMemberNames.scan(query, from, to, matches.members);
+    }
+
+    /**
+     * Assembles the matching events of a range from the scanned qualities, following the rules of
+     * {@link EventSearchEngine#search(String)}. The bands and members are ordered by id, and a band playing
+     * at several matching events is filtered once per search, its DTO being shared by these events.
+     *
+     * @param matches the qualities of all the titles and names
+     * @param from    the first event index, inclusive
+     * @param to      the last event index, exclusive
+     * @return the matching events of the range, ordered by id
+     */
+    public List<EventDTO> collect(Matches matches, int from, int to) {
+        List<EventDTO> events = new ArrayList<>();
+        for (int e = deletedEvents.nextClearBit(from); e < to; e = deletedEvents.nextClearBit(e + 1)) {
+            int titleQuality = matches.titles[e];
+            int relevance = EventRanking.titleRelevance(titleQuality);
+            BandDTO[] mappedBands = titleQuality > 0 ? matches.bandsOfMatchingEvents : matches.bandsOfOtherEvents;
+            Set<BandDTO> bands = null;
+            for (int i = eventBandOffsets[e]; i < eventBandOffsets[e + 1]; i++) {
+                int band = eventBands[i];
+                BandDTO bandDTO = mappedBands[band];
+                if (bandDTO == null) {
+                    bandDTO = toMatchingBandDTO(band, matches, titleQuality > 0);
+                    if (bandDTO == null) {
+                        continue;
+                    }
+                    mappedBands[band] = bandDTO;
+                }
+                if (bands == null) {
+                    bands = LinkedHashSet.newLinkedHashSet(eventBandOffsets[e + 1] - eventBandOffsets[e]);
+                }
+                bands.add(bandDTO);
+                relevance += EventRanking.bandRelevance(matches.bands[band], memberQualities(band, matches));
+            }
+            if (bands != null || titleQuality > 0) {
+                events.add(new EventDTO(eventIds[e], titles[e] + " [" + (bands == null ? 0 : bands.size()) + "]",
+                        imgUrls[e], bands == null ? Set.of() : bands, titleQuality > 0, relevance));
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Filters a band: when the band or its event matches, every member is kept, otherwise only the matching members.
+     *
+     * @return the filtered band, or null if neither its event, its name nor any of its members matches
+     */
+    private BandDTO toMatchingBandDTO(int band, Matches matches, boolean keepAll) {
+        int bandQuality = matches.bands[band];
+        boolean keepAllMembers = keepAll || bandQuality > 0;
+        Set<MemberDTO> members = null;
+        for (int j = bandMemberOffsets[band]; j < bandMemberOffsets[band + 1]; j++) {
+            int member = bandMembers[j];
+            int memberQuality = matches.members[member];
+            if (keepAllMembers || memberQuality > 0) {
+                if (members == null) {
+                    members = LinkedHashSet.newLinkedHashSet(bandMemberOffsets[band + 1] - bandMemberOffsets[band]);
+                }
+                members.add(new MemberDTO(memberNames[member], memberQuality > 0));
+            }
+        }
+        if (members == null && !keepAllMembers) {
+            return null;
+        }
+        return new BandDTO(bandNames[band] + " [" + (members == null ? 0 : members.size()) + "]",
+                members == null ? Set.of() : members, bandQuality > 0);
+    }
+
+    private int memberQualities(int band, Matches matches) {
+        int memberQualities = 0;
+        for (int j = bandMemberOffsets[band]; j < bandMemberOffsets[band + 1]; j++) {
+            memberQualities += matches.members[bandMembers[j]];
+        }
+        return memberQualities;
+    }
+
+    private static <T> List<T> sortedById(Collection<T> values, Function<T, Long> id) {
+        List<T> sorted = new ArrayList<>(values);
+        sorted.sort(Comparator.comparing(id));
+        return sorted;
+    }
+
+    /**
+     * Match qualities of a search, indexed like the columns of the catalogue, 0 standing for no match.
+     * The scans of disjoint ranges write disjoint cells.
+     * <p>
+     * The filtered bands are kept by band index, one array for the bands of matching events and one for the others,
+     * since the filtering depends on whether the event matches. Two ranges collected concurrently may both build
+     * the DTO of a band, the DTOs being immutable and equal, either one is kept.
+     */
+    public static final class Matches {
+        private final int[] titles;
+        private final int[] bands;
+        private final int[] members;
+        private final BandDTO[] bandsOfMatchingEvents;
+        private final BandDTO[] bandsOfOtherEvents;
+
+        private Matches(int[] titles, int[] bands, int[] members,
+                        BandDTO[] bandsOfMatchingEvents, BandDTO[] bandsOfOtherEvents) {
+            this.titles = titles;
+            this.bands = bands;
+            this.members = members;
+            this.bandsOfMatchingEvents = bandsOfMatchingEvents;
+            this.bandsOfOtherEvents = bandsOfOtherEvents;
+        }
+    }
+
+    /**
+     * Folded names concatenated in a single array, name {@code i} spanning {@code chars[offsets[i] .. offsets[i + 1])}.
+     */
+    private record Names(char[] chars, int[] offsets) {
+
+        static Names of(String[] names) {
+            int[] offsets = new int[names.length + 1];
+            StringBuilder chars = new StringBuilder();
+            for (int i = 0; i < names.length; i++) {
+                chars.append(NameIndex.normalize(names[i]));
+                offsets[i + 1] = chars.length();
+            }
+            return new Names(chars.toString().toCharArray(), offsets);
+        }
+
+        void scan(char[] query, int from, int to, int[] qualities) {
+            for (int i = from; i < to; i++) {
+                qualities[i] = matchQuality(offsets[i], offsets[i + 1], query);
+            }
+        }
+
+        /**
+         * Same quality as {@link EventRanking#matchQuality(String, String)}, computed in place.
+         */
+        private int matchQuality(int start, int end, char[] query) {
+            int last = end - query.length;
+            if (last < start) {
+                return 0;
+            }
+            if (last == start && regionMatches(start, query)) {
+                return EventRanking.EXACT_QUALITY;
+            }
+            char first = query[0];
+            int best = 0;
+            for (int i = start; i <= last && best < EventRanking.NAME_PREFIX_QUALITY; i++) {
+                if (chars[i] != first || !regionMatches(i, query)) {
+                    continue;
+                }
+                if (i == start) {
+                    best = EventRanking.NAME_PREFIX_QUALITY;
+                } else if (!Character.isLetterOrDigit(chars[i - 1])) {
+                    best = Math.max(best, EventRanking.WORD_PREFIX_QUALITY);
+                } else {
+                    best = Math.max(best, EventRanking.SUBSTRING_QUALITY);
+                }
+            }
+            return best;
+        }
+
+        private boolean regionMatches(int start, char[] query) {
+            for (int k = 1; k < query.length; k++) {
+                if (chars[start + k] != query[k]) {
+                    return false;
+                }
+            }
+            return chars[start] == query[0];
+        }
+    }
+
+    /**
+     * Growable array of ints, avoiding a boxed list while building the adjacency arrays.
+     */
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package adeo.leroymerlin.cdp.search;
+
+import adeo.leroymerlin.cdp.change.EventChange;
+import adeo.leroymerlin.cdp.config.SearchProperties;
+import adeo.leroymerlin.cdp.dto.EventDTO;
+import adeo.leroymerlin.cdp.exception.SearchTimeoutException;
+import adeo.leroymerlin.cdp.metrics.Histogram;
+import adeo.leroymerlin.cdp.metrics.MetricsRegistry;
+import adeo.leroymerlin.cdp.repository.EventRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Search engine scanning every title, band name and member name of an in-memory {@link ColumnarCatalog},
+ * then assembling the matching events from the same columns without querying the database.
+ * The scan of the names and the assembly of the results are timed separately.
+ * <p>
+ * Above the parallel threshold, each column is split into as many ranges as tasks per search, scanned and assembled
+ * in the dedicated search pool. The results of the event ranges are concatenated in range order, so that they stay
+ * ordered by id whatever the completion order of the tasks. A search thus uses at most its number of tasks in threads,
+ * and all the searches together at most the threads of the pool.
+ * <p>
+ * The ranges are scanned by chunks, a search giving up between two chunks once its time budget is spent,
+ * so that the CPU time of a request is bounded by its number of tasks times the budget.
+ * <p>
+ * A search only reads the catalogue in memory and holds no connection, the catalogue being loaded
+ * in its own read-only transaction.
+ */
+@Component
+@ConditionalOnProperty(name = "cdp.search.engine", havingValue = "columnar")
+public class ColumnarEventSearchEngine implements EventSearchEngine {
+
+    /**
+     * Number of names scanned, or of events assembled, between two checks of the time budget.
+     */
+    private static final int CHUNK_SIZE = 16_384;
+
+    private final EventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SearchProperties searchProperties;
+    private final ForkJoinPool searchPool;
+    private final Histogram scanStage;
+    private final Histogram mapStage;
+    private final Histogram resultSize;
+
+    private volatile ColumnarCatalog catalog;
+
+    /**
+     * @param searchPool the pool running the parallel searches, or null to always scan in the request thread
+     */
+    public ColumnarEventSearchEngine(EventRepository eventRepository, MetricsRegistry metricsRegistry,
+                                     PlatformTransactionManager transactionManager, SearchProperties searchProperties,
+                                     ForkJoinPool searchPool) {
+        this.eventRepository = eventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.searchProperties = searchProperties;
+        this.searchPool = searchPool;
+        this.scanStage = metricsRegistry.timer(SEARCH_STAGE_METRIC, "engine", "columnar", "stage", "scan");
+        this.mapStage = metricsRegistry.timer(SEARCH_STAGE_METRIC, "engine", "columnar", "stage", "map");
+        this.resultSize = metricsRegistry.distribution(SEARCH_RESULTS_METRIC, "engine", "columnar");
+    }
+
+    /**
+     * Builds the columnar catalogue in the background once the application is ready.
+     * A search arriving before waits for the build in progress, or builds the catalogue itself.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        getCatalog();
+    }
+
+    /**
+     * Builds the columnar catalogue from the whole catalogue, in a transaction of its own since it is also called
+     * from within this bean, bypassing its proxy.
+     */
+    public synchronized void buildCatalog() {
+        catalog = transactionTemplate.execute(status -> ColumnarCatalog.of(eventRepository.findAllWithBandsAndMembers()));
+    }
+
+    @Override
+    public List<EventDTO> search(String query) {
+        char[] normalizedQuery = NameIndex.normalize(query).toCharArray();
+        if (normalizedQuery.length == 0) {
+            return List.of();
+        }
+        ColumnarCatalog current = getCatalog();
+        int tasks = tasksFor(current);
+        long start = System.nanoTime();
+        long deadline = deadlineAfter(start);
+        ColumnarCatalog.Matches matches = current.newMatches();
+        List<EventDTO> events;
+        if (tasks == 1) {
+            scanByChunks(0, current.eventCount(), deadline,
+                    (from, to) -> current.scanTitles(normalizedQuery, from, to, matches));
+            scanByChunks(0, current.bandCount(), deadline,
+                    (from, to) -> current.scanBandNames(normalizedQuery, from, to, matches));
+            scanByChunks(0, current.memberCount(), deadline,
+                    (from, to) -> current.scanMemberNames(normalizedQuery, from, to, matches));
+            scanStage.recordSince(start);
+            start = System.nanoTime();
+            events = collectByChunks(current, matches, 0, current.eventCount(), deadline);
+        } else {
+            searchPool.invoke(ForkJoinTask.adapt(() ->
+                    ForkJoinTask.invokeAll(scanTasks(current, normalizedQuery, matches, tasks, deadline))));
+            scanStage.recordSince(start);
+            start = System.nanoTime();
+            events = searchPool.invoke(ForkJoinTask.adapt(() -> collect(current, matches, tasks, deadline)));
+        }
+        mapStage.recordSince(start);
+        resultSize.record(events.size());
+        return events;
+    }
+
+    /**
+     * Masks the deleted events in the columnar catalogue once their deletion is committed.
+     * The other changes leave the searched names unchanged.
+     *
+     * @param change the committed change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onChange(EventChange change) {
+        if (change instanceof EventChange.Deleted deleted && catalog != null) {
+            catalog = catalog.without(deleted.ids());
+        }
+    }
+
+    /**
+     * Returns the number of tasks a search of the catalogue is split into, 1 below the parallel threshold.
+     */
+    private int tasksFor(ColumnarCatalog catalog) {
+        long names = (long) catalog.eventCount() + catalog.bandCount() + catalog.memberCount();
+        if (searchPool == null || names < searchProperties.parallelThreshold()) {
+            return 1;
+        }
+        return searchProperties.tasksPerSearch();
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} after which a search started at the given time gives up.
+     */
+    private long deadlineAfter(long start) {
+        Duration timeBudget = searchProperties.timeBudget();
+        return timeBudget == null || timeBudget.isZero() ? Long.MAX_VALUE : start + timeBudget.toNanos();
+    }
+
+    private static List<ForkJoinTask<?>> scanTasks(ColumnarCatalog catalog, char[] query, ColumnarCatalog.Matches matches,
+                                                   int tasks, long deadline) {
+        List<ForkJoinTask<?>> scanTasks = new ArrayList<>(3 * tasks);
+        for (int[] range : split(catalog.eventCount(), tasks)) {
+            scanTasks.add(ForkJoinTask.adapt(() -> scanByChunks(range[0], range[1], deadline,
+                    (from, to) -> catalog.scanTitles(query, from, to, matches))));
+        }
+        for (int[] range : split(catalog.bandCount(), tasks)) {
+            scanTasks.add(ForkJoinTask.adapt(() -> scanByChunks(range[0], range[1], deadline,
+                    (from, to) -> catalog.scanBandNames(query, from, to, matches))));
+        }
+        for (int[] range : split(catalog.memberCount(), tasks)) {
+            scanTasks.add(ForkJoinTask.adapt(() -> scanByChunks(range[0], range[1], deadline,
+                    (from, to) -> catalog.scanMemberNames(query, from, to, matches))));
+        }
+        return scanTasks;
+    }
+
+    /**
+     * Assembles the events of each range in a task and concatenates the results in range order.
+     */
+    private static List<EventDTO> collect(ColumnarCatalog catalog, ColumnarCatalog.Matches matches, int tasks,
+                                          long deadline) {
+        List<ForkJoinTask<List<EventDTO>>> collectTasks = new ArrayList<>(tasks);
+        for (int[] range : split(catalog.eventCount(), tasks)) {
+            collectTasks.add(ForkJoinTask.adapt(() -> collectByChunks(catalog, matches, range[0], range[1], deadline)));
+        }
+        List<EventDTO> events = new ArrayList<>();
+        for (ForkJoinTask<List<EventDTO>> task : ForkJoinTask.invokeAll(collectTasks)) {
+            events.addAll(task.join());
+        }
+        return events;
+    }
+
+    /**
+     * Scans {@code [from, to)} chunk by chunk, checking the time budget before each chunk.
+     *
+     * @throws SearchTimeoutException if the deadline is passed before the end of the range
+     */
+    private static void scanByChunks(int from, int to, long deadline, RangeScan scan) {
+        for (int chunk = from; chunk < to; chunk += CHUNK_SIZE) {
+            checkDeadline(deadline);
+            scan.scan(chunk, (int) Math.min(to, (long) chunk + CHUNK_SIZE));
+        }
+    }
+
+    /**
+     * Assembles the events of {@code [from, to)} chunk by chunk, checking the time budget before each chunk.
+     *
+     * @throws SearchTimeoutException if the deadline is passed before the end of the range
+     */
+    private static List<EventDTO> collectByChunks(ColumnarCatalog catalog, ColumnarCatalog.Matches matches,
+                                                  int from, int to, long deadline) {
+        List<EventDTO> events = new ArrayList<>();
+        for (int chunk = from; chunk < to; chunk += CHUNK_SIZE) {
+            checkDeadline(deadline);
+            events.addAll(catalog.collect(matches, chunk, (int) Math.min(to, (long) chunk + CHUNK_SIZE)));
+        }
+        return events;
+    }
+
+    private static void checkDeadline(long deadline) {
+        if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) {
+            throw new SearchTimeoutException("The search exceeded its time budget");
+        }
+    }
+
+    /**
+     * Splits {@code [0, size)} into at most the given number of contiguous ranges of balanced lengths.
+     */
+    private static List<int[]> split(int size, int parts) {
+        int count = Math.max(1, Math.min(parts, size));
+        List<int[]> ranges = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ranges.add(new int[]{(int) ((long) size * i / count), (int) ((long) size * (i + 1) / count)});
+        }
+        return ranges;
+    }
+
+    private ColumnarCatalog getCatalog() {
+        ColumnarCatalog current = catalog;
+        if (current == null) {
+            synchronized (this) {
+                current = catalog;
+                if (current == null) {
+                    buildCatalog();
+                    current = catalog;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Scan of a range of a column.
+     */
+    @FunctionalInterface
+    private interface RangeScan {
+        void scan(int from, int to);
+    }
+}
@@ -0,0 +1,125 @@
+package adeo.leroymerlin.cdp.search;
+
+import adeo.leroymerlin.cdp.dto.EventDTO;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Relevance ranking of the search results.
+ * <p>
+ * The quality of a match depends on where the query occurs in the name: the whole name {@value #EXACT_QUALITY},
+ * its beginning {@value #NAME_PREFIX_QUALITY}, the beginning of a word {@value #WORD_PREFIX_QUALITY},
+ * anywhere else {@value #SUBSTRING_QUALITY}. The relevance of an event sums its title match weighted by
+ * {@value #TITLE_WEIGHT}, and for each band holding a match {@value #BAND_SCORE}, its name match weighted by
+ * {@value #BAND_NAME_WEIGHT} and its member matches. A match in another band thus outweighs another match
+ * in the same band. The relevance is computed by the search engines while mapping the results,
+ * events of equal relevance are ordered by id.
+ */
+public final class EventRanking {
+
+    static final int EXACT_QUALITY = 4;
+    static final int NAME_PREFIX_QUALITY = 3;
+    static final int WORD_PREFIX_QUALITY = 2;
+    static final int SUBSTRING_QUALITY = 1;
+
+    static final int TITLE_WEIGHT = 3;
+    static final int BAND_SCORE = 5;
+    static final int BAND_NAME_WEIGHT = 2;
+
+    private static final Comparator<EventDTO> BY_RELEVANCE = Comparator.comparingInt(EventDTO::getRelevance).reversed()
+            .thenComparing(EventDTO::getId);
+
+    private EventRanking() {
+    }
+
+    /**
+     * Returns all the events ordered by relevance.
+     *
+     * @param events the filtered events, with their relevance
+     * @return the events, the most relevant first
+     */
+    public static List<EventDTO> rank(List<EventDTO> events) {
+        return events.stream().sorted(BY_RELEVANCE).toList();
+    }
+
+    /**
+     * Returns the most relevant events, selected with a heap bounded by the limit
+     * so that only the returned events are ordered, in O(n log limit).
+     *
+     * @param events the filtered events, with their relevance
+     * @param limit  the maximum number of returned events
+     * @return at most limit events, the most relevant first
+     */
+    public static List<EventDTO> top(List<EventDTO> events, int limit) {
+        int size = Math.min(limit, events.size());
+        if (size <= 0) {
+            return List.of();
+        }
+        // The head of the heap is the least relevant of the events kept so far
+        PriorityQueue<EventDTO> heap = new PriorityQueue<>(size, BY_RELEVANCE.reversed());
+        for (EventDTO event : events) {
+            if (heap.size() < size) {
+                heap.add(event);
+            } else if (BY_RELEVANCE.compare(event, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(event);
+            }
+        }
+        EventDTO[] ranked = new EventDTO[heap.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = heap.poll();
+        }
+        return Arrays.asList(ranked);
+    }
+
+    /**
+     * Returns the quality of the occurrence of a query in a name, both normalized.
+     *
+     * @param name  the normalized name
+     * @param query the normalized query
+     * @return the quality of the best occurrence, 0 if the name does not contain the query
+     */
+    public static int matchQuality(String name, String query) {
+        if (name.equals(query)) {
+            return EXACT_QUALITY;
+        }
+        int best = 0;
+        for (int index = name.indexOf(query); index >= 0 && best < NAME_PREFIX_QUALITY; index = name.indexOf(query, index + 1)) {
+            if (index == 0) {
+                best = NAME_PREFIX_QUALITY;
+            } else if (!Character.isLetterOrDigit(name.charAt(index - 1))) {
+                best = Math.max(best, WORD_PREFIX_QUALITY);
+            } else {
+                best = Math.max(best, SUBSTRING_QUALITY);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the relevance brought by the title of an event.
+     *
+     * @param titleQuality the quality of the title match, 0 if it does not match
+     * @return the relevance of the title
+     */
+    public static int titleRelevance(int titleQuality) {
+        return TITLE_WEIGHT * titleQuality;
+    }
+
+    /**
+     * Returns the relevance brought by a band holding a match.
+     *
+     * @param nameQuality      the quality of the band name match, 0 if it does not match
+     * @param memberQualities  the sum of the qualities of the matching members of the band
+     * @return the relevance of the band, 0 if neither its name nor any of its members matches
+     */
+    public static int bandRelevance(int nameQuality, int memberQualities) {
+        if (nameQuality == 0 && memberQualities == 0) {
+            return 0;
+        }
+        return BAND_SCORE + BAND_NAME_WEIGHT * nameQuality + memberQualities;
+    }
+}
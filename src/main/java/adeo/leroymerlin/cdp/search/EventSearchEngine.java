@@ -0,0 +1,33 @@
+package adeo.leroymerlin.cdp.search;
+
+import adeo.leroymerlin.cdp.dto.EventDTO;
+
+import java.util.List;
+
+/**
+ * Strategy used by the event service to filter the events on their title and on the names of their bands and members.
+ * The implementation is selected with the {@code cdp.search.engine} property.
+ */
+public interface EventSearchEngine {
+
+    /**
+     * Latency of each stage of a search, tagged with the engine and the stage.
+     */
+    String SEARCH_STAGE_METRIC = "cdp_search_stage_seconds";
+
+    /**
+     * Number of events returned by each search computed by an engine, the cached results are not counted.
+     */
+    String SEARCH_RESULTS_METRIC = "cdp_search_results";
+
+    /**
+     * Returns the events whose title, or the name of one of whose bands or members, contains the query, case-insensitively.
+     * The whole event is kept when its title matches, the whole band when its name matches, otherwise only the matching
+     * bands and members. The event title and band names are suffixed with the number of kept children,
+     * each matching title and name is flagged as matched and the relevance of each event is set, see {@link EventRanking}.
+     *
+     * @param query the searched name fragment
+     * @return the matching events ordered by id
+     */
+    List<EventDTO> search(String query);
+}
@@ -0,0 +1,226 @@
+package adeo.leroymerlin.cdp.search;
+
+import adeo.leroymerlin.cdp.change.EventChange;
+import adeo.leroymerlin.cdp.dto.BandDTO;
+import adeo.leroymerlin.cdp.dto.EventDTO;
+import adeo.leroymerlin.cdp.dto.MemberDTO;
+import adeo.leroymerlin.cdp.entity.Band;
+import adeo.leroymerlin.cdp.entity.Event;
+import adeo.leroymerlin.cdp.entity.Member;
+import adeo.leroymerlin.cdp.metrics.Histogram;
+import adeo.leroymerlin.cdp.metrics.MetricsRegistry;
+import adeo.leroymerlin.cdp.repository.EventRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Search engine resolving the matching titles, bands, members and their events from the in-memory {@link NameIndex},
+ * then loading only the matching events from the database and mapping them in a single pass.
+ * The index lookup, the database load and the mapping, which also counts the matching bands and members,
+ * are timed separately.
+ */
+@Component
+@ConditionalOnProperty(name = "cdp.search.engine", havingValue = "index", matchIfMissing = true)
+public class IndexedEventSearchEngine implements EventSearchEngine {
+
+    private final EventRepository eventRepository;
+    private final NameIndex nameIndex;
+    private final Histogram indexStage;
+    private final Histogram loadStage;
+    private final Histogram mapStage;
+    private final Histogram resultSize;
+
+    private volatile boolean indexBuilt;
+
+    public IndexedEventSearchEngine(EventRepository eventRepository, NameIndex nameIndex,
+                                    MetricsRegistry metricsRegistry) {
+        this.eventRepository = eventRepository;
+        this.nameIndex = nameIndex;
+        this.indexStage = metricsRegistry.timer(SEARCH_STAGE_METRIC, "engine", "index", "stage", "index");
+        this.loadStage = metricsRegistry.timer(SEARCH_STAGE_METRIC, "engine", "index", "stage", "load");
+        this.mapStage = metricsRegistry.timer(SEARCH_STAGE_METRIC, "engine", "index", "stage", "map");
+        this.resultSize = metricsRegistry.distribution(SEARCH_RESULTS_METRIC, "engine", "index");
+    }
+
+    /**
+     * Builds the name search index in the background once the application is ready.
+     * A search arriving before waits for the build in progress, or builds the index itself.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        ensureIndexBuilt();
+    }
+
+    /**
+     * Builds the name search index from the whole catalogue.
+     */
+    @Transactional(readOnly = true)
+    public synchronized void buildIndex() {
+        nameIndex.rebuild(eventRepository.findAllWithBandsAndMembers());
+        indexBuilt = true;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EventDTO> search(String query) {
+        ensureIndexBuilt();
+        long start = System.nanoTime();
+        NameIndex.Hits hits = nameIndex.search(query);
+        indexStage.recordSince(start);
+        if (hits.eventIds().isEmpty()) {
+            resultSize.record(0);
+            return List.of();
+        }
+        start = System.nanoTime();
+        List<Event> events = eventRepository.findAllWithBandsAndMembersByIdIn(hits.eventIds());
+        loadStage.recordSince(start);
+
+        // Single pass over the loaded graph emitting the DTOs directly, the entities are left untouched
+        start = System.nanoTime();
+        List<EventDTO> filteredEvents = new ArrayList<>(events.size());
+        BandMapping mapping = new BandMapping();
+        for (Event event : events) {
+            EventDTO eventDTO = toMatchingEventDTO(event, hits, mapping);
+            if (eventDTO != null) {
+                filteredEvents.add(eventDTO);
+            }
+        }
+        mapStage.recordSince(start);
+        resultSize.record(filteredEvents.size());
+        return filteredEvents;
+    }
+
+    /**
+     * Removes the deleted events from the name index once their deletion is committed.
+     * The other changes leave the indexed names unchanged.
+     *
+     * @param change the committed change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(EventChange change) {
+        if (change instanceof EventChange.Deleted deleted) {
+            deleted.ids().forEach(nameIndex::removeEvent);
+        }
+    }
+
+    private void ensureIndexBuilt() {
+        if (!indexBuilt) {
+            synchronized (this) {
+                if (!indexBuilt) {
+                    buildIndex();
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps an event to a DTO without modifying the entity. When the title matches, every band is kept,
+     * otherwise only the bands whose name or one of whose members matches, in the order of their ids.
+     * The title is suffixed with the number of kept bands, and the relevance of the event is computed.
+     *
+     * @param event   the event to map
+     * @param hits    the matches of the query
+     * @param mapping the bands already mapped by this search
+     * @return the filtered event, or null if neither its title nor any of its bands matches
+     */
+    private static EventDTO toMatchingEventDTO(Event event, NameIndex.Hits hits, BandMapping mapping) {
+        int titleQuality = hits.titleMatches().getOrDefault(event.getId(), 0);
+        int relevance = EventRanking.titleRelevance(titleQuality);
+        Set<BandDTO> bands = null;
+        for (Band band : sortedById(event.getBands(), Band::getId)) {
+            BandDTO bandDTO = mapping.toMatchingBandDTO(band, hits, titleQuality > 0);
+            if (bandDTO != null) {
+                if (bands == null) {
+                    bands = LinkedHashSet.newLinkedHashSet(event.getBands().size());
+                }
+                bands.add(bandDTO);
+                relevance += bandRelevance(band, hits);
+            }
+        }
+        if (bands == null && titleQuality == 0) {
+            return null;
+        }
+        return new EventDTO(event.getId(), event.getTitle() + " [" + (bands == null ? 0 : bands.size()) + "]",
+                event.getImgUrl(), bands == null ? Set.of() : bands, titleQuality > 0, relevance);
+    }
+
+    /**
+     * Maps a band to a DTO without modifying the entity. When the band or its event matches, every member is kept,
+     * otherwise only the matching members, in the order of their ids. The name is suffixed with the number of kept members.
+     *
+     * @param band    the band to map
+     * @param hits    the matches of the query
+     * @param keepAll whether the event of the band matches
+     * @return the filtered band, or null if neither its event, its name nor any of its members matches
+     */
+    private static BandDTO toMatchingBandDTO(Band band, NameIndex.Hits hits, boolean keepAll) {
+        boolean bandMatched = hits.bandMatches().containsKey(band.getId());
+        boolean keepAllMembers = keepAll || bandMatched;
+        Set<MemberDTO> members = null;
+        for (Member member : sortedById(band.getMembers(), Member::getId)) {
+            boolean memberMatched = hits.memberMatches().containsKey(member.getId());
+            if (keepAllMembers || memberMatched) {
+                if (members == null) {
+                    members = LinkedHashSet.newLinkedHashSet(band.getMembers().size());
+                }
+                members.add(new MemberDTO(member.getName(), memberMatched));
+            }
+        }
+        if (members == null && !keepAllMembers) {
+            return null;
+        }
+        return new BandDTO(band.getName() + " [" + (members == null ? 0 : members.size()) + "]",
+                members == null ? Set.of() : members, bandMatched);
+    }
+
+    private static int bandRelevance(Band band, NameIndex.Hits hits) {
+        int memberQualities = 0;
+        for (Member member : band.getMembers()) {
+            memberQualities += hits.memberMatches().getOrDefault(member.getId(), 0);
+        }
+        return EventRanking.bandRelevance(hits.bandMatches().getOrDefault(band.getId(), 0), memberQualities);
+    }
+
+    private static <T> List<T> sortedById(Collection<T> values, Function<T, Long> id) {
+        List<T> sorted = new ArrayList<>(values);
+        sorted.sort(Comparator.comparing(id));
+        return sorted;
+    }
+
+    /**
+     * Bands already mapped by a search, a band playing at several matching events being filtered once
+     * and its immutable DTO shared by these events. The filtered band depends on whether its event matches,
+     * hence one mapping for each case.
+     */
+    private static final class BandMapping {
+        private final Map<Long, BandDTO> bandsOfMatchingEvents = new HashMap<>();
+        private final Map<Long, BandDTO> bandsOfOtherEvents = new HashMap<>();
+
+        private BandDTO toMatchingBandDTO(Band band, NameIndex.Hits hits, boolean keepAll) {
+            Map<Long, BandDTO> mappedBands = keepAll ? bandsOfMatchingEvents : bandsOfOtherEvents;
+            BandDTO bandDTO = mappedBands.get(band.getId());
+            if (bandDTO == null && !mappedBands.containsKey(band.getId())) {
+                bandDTO = IndexedEventSearchEngine.toMatchingBandDTO(band, hits, keepAll);
+                mappedBands.put(band.getId(), bandDTO);
+            }
+            return bandDTO;
+        }
+    }
+}
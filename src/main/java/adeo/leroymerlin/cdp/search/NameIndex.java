@@ -0,0 +1,309 @@
+package adeo.leroymerlin.cdp.search;
+
+import adeo.leroymerlin.cdp.entity.Band;
+import adeo.leroymerlin.cdp.entity.Event;
+import adeo.leroymerlin.cdp.entity.Member;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted trigram index over the event titles, band names and member names of the catalogue.
+ * <p>
+ * The three fields share a single index: each name is folded once at index time (case and accents)
+ * and identified by a key combining the id of its owner and its field, each trigram pointing to the sorted keys
+ * of the names containing it. A substring search thus only touches the postings of the query trigrams
+ * instead of every name. Member to band and band to event links are kept alongside the postings
+ * to resolve the events containing the matches.
+ */
+@Component
+public class NameIndex {
+
+    static final int GRAM_SIZE = 3;
+
+    private static final long[] NO_POSTINGS = new long[0];
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of(), Map.of(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+
+    /**
+     * Rebuilds the whole index from the given events.
+     * The new index is built aside and published atomically, readers never observe a partial index.
+     *
+     * @param events the events of the catalogue with their bands and members
+     */
+    public void rebuild(Collection<Event> events) {
+        Map<String, Set<Long>> grams = new HashMap<>();
+        Map<Long, String> names = new HashMap<>();
+        Map<Long, Set<Long>> memberBands = new HashMap<>();
+        ConcurrentHashMap<Long, Set<Long>> bandEvents = new ConcurrentHashMap<>();
+        ConcurrentHashMap<Long, Set<Long>> eventBands = new ConcurrentHashMap<>();
+
+        for (Event event : events) {
+            index(Field.EVENT_TITLE.key(event.getId()), event.getTitle(), names, grams);
+            Set<Long> bandIds = ConcurrentHashMap.newKeySet();
+            for (Band band : event.getBands()) {
+                bandIds.add(band.getId());
+                bandEvents.computeIfAbsent(band.getId(), id -> ConcurrentHashMap.newKeySet()).add(event.getId());
+                index(Field.BAND_NAME.key(band.getId()), band.getName(), names, grams);
+                for (Member member : band.getMembers()) {
+                    memberBands.computeIfAbsent(member.getId(), id -> new HashSet<>()).add(band.getId());
+                    index(Field.MEMBER_NAME.key(member.getId()), member.getName(), names, grams);
+                }
+            }
+            eventBands.put(event.getId(), bandIds);
+        }
+
+        Map<String, long[]> postings = new HashMap<>(grams.size());
+        grams.forEach((gram, keys) -> postings.put(gram, toSortedArray(keys)));
+        Map<Long, long[]> memberBandIds = new HashMap<>(memberBands.size());
+        memberBands.forEach((memberId, bandIds) -> memberBandIds.put(memberId, toSortedArray(bandIds)));
+
+        snapshot = new Snapshot(postings, names, memberBandIds, bandEvents, eventBands);
+    }
+
+    /**
+     * Removes the given event from the index.
+     * Postings are left untouched, they simply no longer resolve to the removed event.
+     *
+     * @param eventId the id of the removed event
+     */
+    public void removeEvent(Long eventId) {
+        Snapshot current = snapshot;
+        Set<Long> bandIds = current.eventBands().remove(eventId);
+        if (bandIds == null) {
+            return;
+        }
+        for (Long bandId : bandIds) {
+            Set<Long> eventIds = current.bandEvents().get(bandId);
+            if (eventIds != null) {
+                eventIds.remove(eventId);
+            }
+        }
+    }
+
+    /**
+     * Returns the titles, band names and member names containing the query, with the quality of each match,
+     * and the events they belong to. The query is folded the same way as the indexed names.
+     *
+     * @param query the searched name fragment
+     * @return the matches and the ids of the events containing them
+     */
+    public Hits search(String query) {
+        Snapshot current = snapshot;
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty()) {
+            return Hits.EMPTY;
+        }
+
+        long[] candidates = normalizedQuery.length() < GRAM_SIZE
+                ? searchShortQuery(current, normalizedQuery)
+                : searchLongQuery(current, normalizedQuery);
+
+        Map<Long, Integer> titleMatches = new HashMap<>();
+        Map<Long, Integer> bandMatches = new HashMap<>();
+        Map<Long, Integer> memberMatches = new HashMap<>();
+        Set<Long> eventIds = new HashSet<>();
+        for (long key : candidates) {
+            int quality = EventRanking.matchQuality(current.names().get(key), normalizedQuery);
+            if (quality == 0) {
+                continue;
+            }
+            long id = Field.id(key);
+            switch (Field.of(key)) {
+                case EVENT_TITLE -> {
+                    if (current.eventBands().containsKey(id)) {
+                        titleMatches.put(id, quality);
+                        eventIds.add(id);
+                    }
+                }
+                case BAND_NAME -> {
+                    if (addBandEvents(current, id, eventIds)) {
+                        bandMatches.put(id, quality);
+                    }
+                }
+                case MEMBER_NAME -> {
+                    boolean playing = false;
+                    for (long bandId : current.memberBands().getOrDefault(id, NO_POSTINGS)) {
+                        playing |= addBandEvents(current, bandId, eventIds);
+                    }
+                    if (playing) {
+                        memberMatches.put(id, quality);
+                    }
+                }
+            }
+        }
+        return new Hits(eventIds, titleMatches, bandMatches, memberMatches);
+    }
+
+    private static boolean addBandEvents(Snapshot current, long bandId, Set<Long> eventIds) {
+        Set<Long> bandEventIds = current.bandEvents().get(bandId);
+        if (bandEventIds == null || bandEventIds.isEmpty()) {
+            return false;
+        }
+        eventIds.addAll(bandEventIds);
+        return true;
+    }
+
+    /**
+     * A query shorter than a trigram is contained in at least one trigram of every matching name,
+     * so merging the postings of the grams containing it gives every candidate. Names shorter than a trigram are indexed as-is.
+     */
+    private long[] searchShortQuery(Snapshot current, String query) {
+        Set<Long> keys = new HashSet<>();
+        current.postings().forEach((gram, postings) -> {
+            if (gram.contains(query)) {
+                for (long key : postings) {
+                    keys.add(key);
+                }
+            }
+        });
+        return toSortedArray(keys);
+    }
+
+    /**
+     * Intersects the postings of every trigram of the query, starting from the most selective one.
+     * The candidates are verified afterwards since sharing all trigrams does not imply containing the query.
+     */
+    private long[] searchLongQuery(Snapshot current, String query) {
+        List<long[]> queryPostings = new ArrayList<>();
+        for (String gram : grams(query)) {
+            long[] keys = current.postings().get(gram);
+            if (keys == null) {
+                return NO_POSTINGS;
+            }
+            queryPostings.add(keys);
+        }
+        queryPostings.sort(Comparator.comparingInt(keys -> keys.length));
+
+        long[] candidates = queryPostings.getFirst();
+        for (int i = 1; i < queryPostings.size() && candidates.length > 0; i++) {
+            candidates = intersect(candidates, queryPostings.get(i));
+        }
+        return candidates;
+    }
+
+    /**
+     * Folds a name or a query for matching: trimmed, lower-cased and stripped of its accents.
+     *
+     * @param value the value to fold
+     * @return the folded value, empty for null
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String lowerCased = value.trim().toLowerCase(Locale.ROOT);
+        if (isAscii(lowerCased)) {
+            return lowerCased;
+        }
+        return COMBINING_MARKS.matcher(Normalizer.normalize(lowerCased, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    static Set<String> grams(String normalizedValue) {
+        if (normalizedValue.length() <= GRAM_SIZE) {
+            return normalizedValue.isEmpty() ? Set.of() : Set.of(normalizedValue);
+        }
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= normalizedValue.length(); i++) {
+            grams.add(normalizedValue.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private static void index(long key, String name, Map<Long, String> names, Map<String, Set<Long>> grams) {
+        if (names.containsKey(key)) {
+            return;
+        }
+        String normalizedName = normalize(name);
+        names.put(key, normalizedName);
+        for (String gram : grams(normalizedName)) {
+            grams.computeIfAbsent(gram, g -> new HashSet<>()).add(key);
+        }
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static long[] toSortedArray(Set<Long> ids) {
+        long[] array = new long[ids.size()];
+        int i = 0;
+        for (Long id : ids) {
+            array[i++] = id;
+        }
+        Arrays.sort(array);
+        return array;
+    }
+
+    /**
+     * Indexed field, encoded in the two lowest bits of the key of a name.
+     */
+    private enum Field {
+        EVENT_TITLE, BAND_NAME, MEMBER_NAME;
+
+        private static final Field[] FIELDS = values();
+
+        long key(long id) {
+            return id << 2 | ordinal();
+        }
+
+        static Field of(long key) {
+            return FIELDS[(int) (key & 3)];
+        }
+
+        static long id(long key) {
+            return key >>> 2;
+        }
+    }
+
+    /**
+     * Result of an index lookup. The matches map the id of the event, band or member to the quality of the match,
+     * see {@link EventRanking#matchQuality(String, String)}.
+     *
+     * @param eventIds      the ids of the events having a matching title, band or member
+     * @param titleMatches  the events whose title matches
+     * @param bandMatches   the bands whose name matches
+     * @param memberMatches the members whose name matches
+     */
+    public record Hits(Set<Long> eventIds,
+                       Map<Long, Integer> titleMatches,
+                       Map<Long, Integer> bandMatches,
+                       Map<Long, Integer> memberMatches) {
+        static final Hits EMPTY = new Hits(Set.of(), Map.of(), Map.of(), Map.of());
+    }
+
+    private record Snapshot(Map<String, long[]> postings,
+                            Map<Long, String> names,
+                            Map<Long, long[]> memberBands,
+                            ConcurrentHashMap<Long, Set<Long>> bandEvents,
+                            ConcurrentHashMap<Long, Set<Long>> eventBands) {
+    }
+}
@@ -0,0 +1,350 @@
+package adeo.leroymerlin.cdp.search;
+
+import adeo.leroymerlin.cdp.change.EventChange;
+import adeo.leroymerlin.cdp.readmodel.BandView;
+import adeo.leroymerlin.cdp.readmodel.EventReadModel;
+import adeo.leroymerlin.cdp.readmodel.EventView;
+import adeo.leroymerlin.cdp.readmodel.MemberView;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Typeahead over the band and member names of the catalogue.
+ * <p>
+ * Every word of a folded name starts a key, so that {@code "hud"} completes {@code "Queen Gertrude Hudson"}.
+ * The keys are held in a sorted array, in which the keys sharing a prefix form a contiguous range found by binary search.
+ * The ranges of the short prefixes are too wide to be scanned per keystroke, so their top completions are computed
+ * once at build time; the narrower ranges of the longer prefixes are scanned with a bounded heap.
+ * <p>
+ * Completions are ranked by the number of events their name appears in. Deleting an event decrements the counts
+ * of its names in place, a name no longer appearing in any event is not suggested anymore.
+ * The precomputed top lists holding one of its names are recomputed, the others cannot change.
+ */
+@Component
+public class NameSuggester {
+
+    public static final int MAX_SUGGESTIONS = 20;
+
+    static final int PRECOMPUTED_PREFIX_LENGTH = 3;
+
+    private final EventReadModel eventReadModel;
+
+    private volatile Dictionary dictionary;
+
+    public NameSuggester(EventReadModel eventReadModel) {
+        this.eventReadModel = eventReadModel;
+    }
+
+    /**
+     * Builds the dictionary in the background once the application is ready,
+     * a suggestion requested before is served once the dictionary is built.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        getDictionary();
+    }
+
+    /**
+     * Rebuilds the whole dictionary from the events snapshot.
+     */
+    public void rebuild() {
+        rebuild(eventReadModel.getCatalog().events());
+    }
+
+    /**
+     * Rebuilds the whole dictionary from the given events.
+     * The new dictionary is built aside and published atomically.
+     *
+     * @param events the events with their bands and members
+     */
+    public synchronized void rebuild(Collection<EventView> events) {
+        dictionary = Dictionary.build(events);
+    }
+
+    /**
+     * Stops counting the names of the deleted events once their deletion is committed.
+     * The other changes leave the band and member names unchanged.
+     *
+     * @param change the committed change
+     */
+    @Order(1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(EventChange change) {
+        if (change instanceof EventChange.Deleted deleted) {
+            deleted.ids().forEach(this::removeEvent);
+        }
+    }
+
+    /**
+     * Stops counting the names of the given event.
+     * Serialized with the builds, so that a removal is never lost by a dictionary built concurrently.
+     *
+     * @param eventId the id of the removed event
+     */
+    public synchronized void removeEvent(Long eventId) {
+        if (dictionary != null) {
+            dictionary.removeEvent(eventId);
+        }
+    }
+
+    /**
+     * Returns the band and member names having a word starting with the prefix, folded like the search queries.
+     *
+     * @param prefix the typed prefix
+     * @param limit  the maximum number of completions, capped to {@value #MAX_SUGGESTIONS}
+     * @return the completions, the names appearing in the most events first
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalizedPrefix = NameIndex.normalize(prefix);
+        int size = Math.min(limit, MAX_SUGGESTIONS);
+        if (normalizedPrefix.isEmpty() || size <= 0) {
+            return List.of();
+        }
+        return getDictionary().suggest(normalizedPrefix, size);
+    }
+
+    private Dictionary getDictionary() {
+        Dictionary current = dictionary;
+        if (current == null) {
+            synchronized (this) {
+                if (dictionary == null) {
+                    rebuild();
+                }
+                current = dictionary;
+            }
+        }
+        return current;
+    }
+
+    private static final class Dictionary {
+
+        private final String[] names;
+        private final Suggestion.Type[] types;
+        private final AtomicIntegerArray weights;
+        private final String[] keys;
+        private final int[] keyEntries;
+        private final ConcurrentHashMap<String, int[]> topEntries;
+        private final ConcurrentHashMap<Long, int[]> eventEntries;
+        private final Comparator<Integer> byRank;
+
+        private Dictionary(String[] names, Suggestion.Type[] types, int[] initialWeights, String[] keys, int[] keyEntries,
+                           ConcurrentHashMap<Long, int[]> eventEntries) {
+            this.names = names;
+            this.types = types;
+            this.weights = new AtomicIntegerArray(initialWeights);
+            this.keys = keys;
+            this.keyEntries = keyEntries;
+            this.eventEntries = eventEntries;
+            this.byRank = Comparator.<Integer>comparingInt(weights::get).reversed()
+                    .thenComparingInt(entry -> names[entry].length())
+                    .thenComparing(entry -> names[entry]);
+            this.topEntries = precomputeTopEntries();
+        }
+
+        static Dictionary build(Collection<EventView> events) {
+            Map<String, Integer> entryIndexes = new HashMap<>();
+            List<String> names = new ArrayList<>();
+            List<Suggestion.Type> types = new ArrayList<>();
+            List<Integer> weights = new ArrayList<>();
+            ConcurrentHashMap<Long, int[]> eventEntries = new ConcurrentHashMap<>();
+            for (EventView event : events) {
+                Set<Integer> entries = new HashSet<>();
+                for (BandView band : event.bands()) {
+                    entries.add(entryOf(band.name(), Suggestion.Type.BAND, entryIndexes, names, types, weights));
+                    for (MemberView member : band.members()) {
+                        entries.add(entryOf(member.name(), Suggestion.Type.MEMBER, entryIndexes, names, types, weights));
+                    }
+                }
+                entries.remove(-1);
+                entries.forEach(entry -> weights.set(entry, weights.get(entry) + 1));
+                eventEntries.put(event.id(), entries.stream().mapToInt(Integer::intValue).toArray());
+            }
+
+            List<String> keys = new ArrayList<>();
+            List<Integer> keyEntries = new ArrayList<>();
+            for (int entry = 0; entry < names.size(); entry++) {
+                for (String key : wordKeys(names.get(entry))) {
+                    keys.add(key);
+                    keyEntries.add(entry);
+                }
+            }
+            Integer[] order = new Integer[keys.size()];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, Comparator.comparing(keys::get));
+
+            return new Dictionary(names.toArray(String[]::new), types.toArray(Suggestion.Type[]::new),
+                    weights.stream().mapToInt(Integer::intValue).toArray(),
+                    Arrays.stream(order).map(keys::get).toArray(String[]::new),
+                    Arrays.stream(order).mapToInt(keyEntries::get).toArray(),
+                    eventEntries);
+        }
+
+        private static int entryOf(String name, Suggestion.Type type, Map<String, Integer> entryIndexes,
+                                   List<String> names, List<Suggestion.Type> types, List<Integer> weights) {
+            if (name == null || name.isBlank()) {
+                return -1;
+            }
+            return entryIndexes.computeIfAbsent(type + ":" + NameIndex.normalize(name), key -> {
+                names.add(name);
+                types.add(type);
+                weights.add(0);
+                return names.size() - 1;
+            });
+        }
+
+        /**
+         * Returns the suffixes of the folded name starting at each of its words.
+         */
+        private static List<String> wordKeys(String name) {
+            String folded = NameIndex.normalize(name);
+            List<String> keys = new ArrayList<>();
+            for (int start = 0; start < folded.length(); start++) {
+                if (Character.isLetterOrDigit(folded.charAt(start))
+                        && (start == 0 || !Character.isLetterOrDigit(folded.charAt(start - 1)))) {
+                    keys.add(folded.substring(start));
+                }
+            }
+            return keys;
+        }
+
+        /**
+         * Decrements the weights of the names of the event, then recomputes the precomputed top lists holding one of them.
+         * The weights only decrease, so an entry outside a top list can only outrank one inside it
+         * once the weight of the latter has decreased: the other top lists are still exact.
+         */
+        void removeEvent(Long eventId) {
+            int[] entries = eventEntries.remove(eventId);
+            if (entries == null) {
+                return;
+            }
+            Set<String> stalePrefixes = new HashSet<>();
+            for (int entry : entries) {
+                weights.decrementAndGet(entry);
+                for (String key : wordKeys(names[entry])) {
+                    for (int length = 1; length <= Math.min(PRECOMPUTED_PREFIX_LENGTH, key.length()); length++) {
+                        String prefix = key.substring(0, length);
+                        if (!stalePrefixes.contains(prefix) && contains(topEntries.get(prefix), entry)) {
+                            stalePrefixes.add(prefix);
+                        }
+                    }
+                }
+            }
+            for (String prefix : stalePrefixes) {
+                int[] top = top(lowerBound(prefix), lowerBound(prefix + Character.MAX_VALUE), MAX_SUGGESTIONS).stream()
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+                topEntries.put(prefix, top);
+            }
+        }
+
+        List<Suggestion> suggest(String prefix, int limit) {
+            if (prefix.length() <= PRECOMPUTED_PREFIX_LENGTH) {
+                int[] top = topEntries.get(prefix);
+                return top == null ? List.of() : toSuggestions(Arrays.stream(top).limit(limit).boxed().toList());
+            }
+            int from = lowerBound(prefix);
+            int to = lowerBound(prefix + Character.MAX_VALUE);
+            return toSuggestions(top(from, to, limit));
+        }
+
+        private static boolean contains(int[] entries, int entry) {
+            if (entries != null) {
+                for (int candidate : entries) {
+                    if (candidate == entry) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private ConcurrentHashMap<String, int[]> precomputeTopEntries() {
+            ConcurrentHashMap<String, int[]> top = new ConcurrentHashMap<>();
+            for (int length = 1; length <= PRECOMPUTED_PREFIX_LENGTH; length++) {
+                int from = 0;
+                while (from < keys.length) {
+                    if (keys[from].length() < length) {
+                        from++;
+                        continue;
+                    }
+                    String prefix = keys[from].substring(0, length);
+                    int to = from + 1;
+                    while (to < keys.length && keys[to].startsWith(prefix)) {
+                        to++;
+                    }
+                    top.put(prefix, top(from, to, MAX_SUGGESTIONS).stream().mapToInt(Integer::intValue).toArray());
+                    from = to;
+                }
+            }
+            return top;
+        }
+
+        /**
+         * Selects the best distinct entries of a range of keys with a heap bounded by the limit.
+         * A name having several words in the range is deduplicated against the heap: the least ranked entry
+         * of the heap only improves, so an occurrence not kept in the heap would not be kept the next time either.
+         */
+        private List<Integer> top(int from, int to, int limit) {
+            PriorityQueue<Integer> heap = new PriorityQueue<>(limit, byRank.reversed());
+            for (int i = from; i < to; i++) {
+                int entry = keyEntries[i];
+                if (weights.get(entry) <= 0) {
+                    continue;
+                }
+                if (heap.size() < limit) {
+                    if (!heap.contains(entry)) {
+                        heap.add(entry);
+                    }
+                } else if (byRank.compare(entry, heap.peek()) < 0 && !heap.contains(entry)) {
+                    heap.poll();
+                    heap.add(entry);
+                }
+            }
+            Integer[] ranked = new Integer[heap.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = heap.poll();
+            }
+            return Arrays.asList(ranked);
+        }
+
+        private int lowerBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle].compareTo(key) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private List<Suggestion> toSuggestions(List<Integer> entries) {
+            List<Suggestion> suggestions = new ArrayList<>(entries.size());
+            for (int entry : entries) {
+                suggestions.add(new Suggestion(names[entry], types[entry], weights.get(entry)));
+            }
+            return suggestions;
+        }
+    }
+}
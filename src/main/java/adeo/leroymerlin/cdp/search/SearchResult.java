@@ -0,0 +1,47 @@
+package adeo.leroymerlin.cdp.search;
+
+import adeo.leroymerlin.cdp.dto.EventDTO;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable result of a search, the filtered events ordered by id as they are paginated.
+ * The relevance ranking of the whole result is computed on its first request and kept with the result,
+ * so that a cached result is ranked once instead of once per request.
+ */
+public final class SearchResult extends AbstractList<EventDTO> implements RandomAccess {
+
+    private final List<EventDTO> events;
+    private volatile List<EventDTO> ranked;
+
+    public SearchResult(List<EventDTO> events) {
+        this.events = List.copyOf(events);
+    }
+
+    @Override
+    public EventDTO get(int index) {
+        return events.get(index);
+    }
+
+    @Override
+    public int size() {
+        return events.size();
+    }
+
+    /**
+     * Returns the events of this result, the most relevant first.
+     *
+     * @return the ranked events
+     */
+    public List<EventDTO> ranked() {
+        List<EventDTO> result = ranked;
+        if (result == null) {
+            // Racing requests may both rank the result, to the same list
+            result = EventRanking.rank(events);
+            ranked = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,77 @@
+package adeo.leroymerlin.cdp.search;
+
+import adeo.leroymerlin.cdp.cache.BoundedCache;
+import adeo.leroymerlin.cdp.cache.BoundedCacheManager;
+import adeo.leroymerlin.cdp.change.EventChange;
+import adeo.leroymerlin.cdp.dto.EventDTO;
+import org.springframework.cache.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Cache of the search results, keyed on the normalized query.
+ * Invalidation is selective: only the results containing a deleted event are evicted.
+ */
+@Component
+public class SearchResultCache {
+
+    static final String CACHE_NAME = "search";
+
+    private final BoundedCache cache;
+
+    public SearchResultCache(BoundedCacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached result of the query, or computes and caches it.
+     * Concurrent misses on the same query wait for a single search, and a result computed while an invalidation
+     * happened is returned but not cached, since it may be stale.
+     *
+     * @param query  the raw query
+     * @param search the search computing the result of a normalized query
+     * @return the immutable result of the query
+     */
+    public SearchResult get(String query, Function<String, List<EventDTO>> search) {
+        String key = NameIndex.normalize(query);
+        try {
+            return cache.get(key, () -> new SearchResult(search.apply(key)));
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Evicts the cached results containing the deleted events once the deletion is committed,
+     * so that a search running before the commit cannot cache the previous state after the eviction.
+     * The reviews and the ratings are not part of the search results and evict nothing.
+     *
+     * @param change the committed change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(EventChange change) {
+        if (change instanceof EventChange.Deleted deleted) {
+            evictEvents(Set.copyOf(deleted.ids()));
+        }
+    }
+
+    /**
+     * Evicts the cached results containing any of the given events, in a single pass over the cache.
+     *
+     * @param eventIds the ids of the modified events
+     */
+    public void evictEvents(Set<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        cache.evictIf(result -> ((List<?>) result).stream()
+                .anyMatch(event -> eventIds.contains(((EventDTO) event).getId())));
+    }
+}
@@ -0,0 +1,109 @@
+package adeo.leroymerlin.cdp.search;
+
+import adeo.leroymerlin.cdp.dto.BandDTO;
+import adeo.leroymerlin.cdp.dto.EventDTO;
+import adeo.leroymerlin.cdp.dto.MemberDTO;
+import adeo.leroymerlin.cdp.metrics.Histogram;
+import adeo.leroymerlin.cdp.metrics.MetricsRegistry;
+import adeo.leroymerlin.cdp.repository.EventRepository;
+import adeo.leroymerlin.cdp.repository.NameMatchRow;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Search engine pushing the title, band name and member name filtering down to the database.
+ * The query returns flat projection rows that are assembled straight into DTOs,
+ * so no entity is loaded into the persistence context.
+ * Unlike the index, the database only folds the case of the stored names, not their accents.
+ */
+@Component
+@ConditionalOnProperty(name = "cdp.search.engine", havingValue = "sql")
+public class SqlEventSearchEngine implements EventSearchEngine {
+
+    private static final char LIKE_ESCAPE = '!';
+
+    private final EventRepository eventRepository;
+    private final Histogram loadStage;
+    private final Histogram mapStage;
+    private final Histogram resultSize;
+
+    public SqlEventSearchEngine(EventRepository eventRepository, MetricsRegistry metricsRegistry) {
+        this.eventRepository = eventRepository;
+        this.loadStage = metricsRegistry.timer(SEARCH_STAGE_METRIC, "engine", "sql", "stage", "load");
+        this.mapStage = metricsRegistry.timer(SEARCH_STAGE_METRIC, "engine", "sql", "stage", "map");
+        this.resultSize = metricsRegistry.distribution(SEARCH_RESULTS_METRIC, "engine", "sql");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EventDTO> search(String query) {
+        String normalizedQuery = NameIndex.normalize(query);
+        if (normalizedQuery.isEmpty()) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        List<NameMatchRow> rows = eventRepository.findNameMatches("%" + escapeLikePattern(normalizedQuery) + "%");
+        loadStage.recordSince(start);
+
+        start = System.nanoTime();
+        List<EventDTO> events = rows.stream()
+                .collect(Collectors.groupingBy(NameMatchRow::eventId, LinkedHashMap::new, Collectors.toList()))
+                .values().stream()
+                .map(eventRows -> toEventDTO(eventRows, normalizedQuery))
+                .toList();
+        mapStage.recordSince(start);
+        resultSize.record(events.size());
+        return events;
+    }
+
+    /**
+     * Assembles an event from its rows, the rows of an event all carry the same event columns.
+     *
+     * @param eventRows       the rows of a single event
+     * @param normalizedQuery the normalized query, used to flag the matching names and compute the relevance
+     * @return the event with its kept bands
+     */
+    private static EventDTO toEventDTO(List<NameMatchRow> eventRows, String normalizedQuery) {
+        NameMatchRow eventRow = eventRows.getFirst();
+        int titleQuality = EventRanking.matchQuality(NameIndex.normalize(eventRow.title()), normalizedQuery);
+        Set<BandDTO> bands = new LinkedHashSet<>();
+        int relevance = EventRanking.titleRelevance(titleQuality);
+        for (List<NameMatchRow> bandRows : eventRows.stream()
+                .filter(row -> row.bandId() != null)
+                .collect(Collectors.groupingBy(NameMatchRow::bandId, LinkedHashMap::new, Collectors.toList()))
+                .values()) {
+            int nameQuality = EventRanking.matchQuality(NameIndex.normalize(bandRows.getFirst().bandName()), normalizedQuery);
+            int memberQualities = 0;
+            Set<MemberDTO> members = new LinkedHashSet<>();
+            for (NameMatchRow row : bandRows) {
+                if (row.memberName() != null) {
+                    int memberQuality = EventRanking.matchQuality(NameIndex.normalize(row.memberName()), normalizedQuery);
+                    members.add(new MemberDTO(row.memberName(), memberQuality > 0));
+                    memberQualities += memberQuality;
+                }
+            }
+            bands.add(new BandDTO(bandRows.getFirst().bandName() + " [" + members.size() + "]", members, nameQuality > 0));
+            relevance += EventRanking.bandRelevance(nameQuality, memberQualities);
+        }
+        return new EventDTO(eventRow.eventId(), eventRow.title() + " [" + bands.size() + "]", eventRow.imgUrl(),
+                bands, titleQuality > 0, relevance);
+    }
+
+    private static String escapeLikePattern(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
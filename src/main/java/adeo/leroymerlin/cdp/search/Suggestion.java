@@ -0,0 +1,15 @@
+package adeo.leroymerlin.cdp.search;
+
+/**
+ * Completion of a typed prefix.
+ *
+ * @param name   the band or member name, as stored
+ * @param type   the kind of name
+ * @param events the number of events the name appears in, which ranks the completions
+ */
+public record Suggestion(String name, Type type, int events) {
+
+    public enum Type {
+        BAND, MEMBER
+    }
+}
@@ -0,0 +1,180 @@
+package adeo.leroymerlin.cdp.service;
+
+import adeo.leroymerlin.cdp.config.SeedProperties;
+import adeo.leroymerlin.cdp.repository.SeedJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk import of the seed from CSV files, used when {@code cdp.seed.location} is set instead of {@code data.sql}.
+ * <p>
+ * Each table is read from {@code <location>/<table>.csv}, whose header names the columns, and streamed to the database
+ * in JDBC batches of {@code cdp.seed.batch-size} rows, within a single transaction.
+ * The import only runs against an empty database: a file-backed database reopened by a restart is left untouched.
+ * When the schema does not exist yet, it is created from {@code schema.sql} first.
+ * <p>
+ * The fields follow RFC 4180, a field may be quoted to hold commas and doubled quotes but not line breaks,
+ * and an empty unquoted field is imported as null.
+ */
+@Component
+@ConditionalOnProperty(name = "cdp.seed.location")
+public class CsvSeedImporter implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CsvSeedImporter.class);
+
+    /**
+     * The seeded tables, each one after the tables it references.
+     */
+    static final List<String> TABLES = List.of("event", "band", "member", "event_bands", "band_members");
+
+    private static final String SCHEMA_LOCATION = "classpath:schema.sql";
+
+    private final SeedJdbcRepository seedJdbcRepository;
+    private final ResourceLoader resourceLoader;
+    private final TransactionTemplate transactionTemplate;
+    private final String location;
+    private final int batchSize;
+
+    public CsvSeedImporter(SeedJdbcRepository seedJdbcRepository, ResourceLoader resourceLoader,
+                           PlatformTransactionManager transactionManager, SeedProperties seedProperties) {
+        this.seedJdbcRepository = seedJdbcRepository;
+        this.resourceLoader = resourceLoader;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.location = seedProperties.location().endsWith("/") ? seedProperties.location() : seedProperties.location() + "/";
+        this.batchSize = seedProperties.batchSize();
+    }
+
+    /**
+     * Seeds the database before the application is ready, so that the warm-ups read the seeded events.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        importSeed();
+    }
+
+    /**
+     * Imports every CSV file of the seed location, unless the database already holds events.
+     *
+     * @return the number of imported rows, 0 if the database was not empty
+     */
+    public long importSeed() {
+        if (!seedJdbcRepository.schemaExists()) {
+            seedJdbcRepository.createSchema(resourceLoader.getResource(SCHEMA_LOCATION));
+        } else if (!seedJdbcRepository.isEmpty()) {
+            LOGGER.info("Database already seeded, skipping the import from {}", location);
+            return 0;
+        }
+        long start = System.nanoTime();
+        Long imported = transactionTemplate.execute(status -> {
+            long rows = 0;
+            for (String table : TABLES) {
+                rows += importTable(table);
+            }
+            return rows;
+        });
+        LOGGER.info("Imported {} rows from {} in {} ms", imported, location, (System.nanoTime() - start) / 1_000_000);
+        return imported;
+    }
+
+    private long importTable(String table) {
+        Resource resource = resourceLoader.getResource(location + table + ".csv");
+        if (!resource.exists()) {
+            return 0;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                return 0;
+            }
+            List<String> columns = parseLine(header.strip());
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            long rows = 0;
+            int lineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> fields = parseLine(line);
+                if (fields.size() != columns.size()) {
+                    throw new IllegalStateException("Line " + lineNumber + " of " + table + ".csv has " + fields.size()
+                            + " fields, expected " + columns.size());
+                }
+                batch.add(fields.toArray());
+                if (batch.size() == batchSize) {
+                    seedJdbcRepository.insertBatch(table, columns, batch);
+                    rows += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                seedJdbcRepository.insertBatch(table, columns, batch);
+                rows += batch.size();
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + resource, e);
+        }
+    }
+
+    /**
+     * Splits a CSV line into its fields.
+     *
+     * @param line the line, without its line break
+     * @return the unquoted fields, null for the empty unquoted ones
+     */
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(toField(field, wasQuoted));
+                field.setLength(0);
+                wasQuoted = false;
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalStateException("Unterminated quoted field: " + line);
+        }
+        fields.add(toField(field, wasQuoted));
+        return fields;
+    }
+
+    private static String toField(StringBuilder field, boolean quoted) {
+        return field.isEmpty() && !quoted ? null : field.toString();
+    }
+}
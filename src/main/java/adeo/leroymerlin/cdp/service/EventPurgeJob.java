@@ -0,0 +1,65 @@
+package adeo.leroymerlin.cdp.service;
+
+import adeo.leroymerlin.cdp.config.DeletionProperties;
+import adeo.leroymerlin.cdp.repository.EventJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Background purge of the tombstoned events in soft deletion mode.
+ * The events and their join rows are purged in small batches, each in its own transaction,
+ * so that the purge never holds locks for long nor runs on the request path.
+ */
+@Component
+@ConditionalOnProperty(name = "cdp.deletion.mode", havingValue = "soft")
+public class EventPurgeJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventPurgeJob.class);
+
+    private final EventJdbcRepository eventJdbcRepository;
+    private final DeletionProperties deletionProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    public EventPurgeJob(EventJdbcRepository eventJdbcRepository, DeletionProperties deletionProperties,
+                         PlatformTransactionManager transactionManager) {
+        this(eventJdbcRepository, deletionProperties, transactionManager, Clock.systemUTC());
+    }
+
+    EventPurgeJob(EventJdbcRepository eventJdbcRepository, DeletionProperties deletionProperties,
+                  PlatformTransactionManager transactionManager, Clock clock) {
+        this.eventJdbcRepository = eventJdbcRepository;
+        this.deletionProperties = deletionProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    /**
+     * Purges the events tombstoned for longer than the retention, batch after batch until none is left.
+     *
+     * @return the number of purged events
+     */
+    @Scheduled(fixedDelayString = "${cdp.deletion.purge-interval:PT1M}")
+    public int purge() {
+        Instant tombstonedBefore = clock.instant().minus(deletionProperties.purgeRetention());
+        int batchSize = deletionProperties.purgeBatchSize();
+        int purged = 0;
+        int batchPurged;
+        do {
+            batchPurged = transactionTemplate.execute(status -> eventJdbcRepository.purgeTombstoned(tombstonedBefore, batchSize));
+            purged += batchPurged;
+        } while (batchPurged == batchSize);
+        if (purged > 0) {
+            LOGGER.info("Purged {} tombstoned events", purged);
+        }
+        return purged;
+    }
+}
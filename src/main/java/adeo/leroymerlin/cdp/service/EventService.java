@@ -1,172 +1,431 @@
 package adeo.leroymerlin.cdp.service;
 
+import adeo.leroymerlin.cdp.change.EventChange;
+import adeo.leroymerlin.cdp.config.PaginationProperties;
+import adeo.leroymerlin.cdp.dto.CursorPage;
 import adeo.leroymerlin.cdp.dto.EventDTO;
-import adeo.leroymerlin.cdp.entity.Band;
+import adeo.leroymerlin.cdp.dto.EventDeletionDTO;
+import adeo.leroymerlin.cdp.dto.EventReviewDTO;
+import adeo.leroymerlin.cdp.dto.EventReviewResultDTO;
 import adeo.leroymerlin.cdp.entity.Event;
-import adeo.leroymerlin.cdp.entity.Member;
+import adeo.leroymerlin.cdp.exception.InvalidCursorException;
+import adeo.leroymerlin.cdp.exception.InvalidRequestException;
+import adeo.leroymerlin.cdp.exception.PreconditionFailedException;
 import adeo.leroymerlin.cdp.exception.ResourceNotFoundException;
 import adeo.leroymerlin.cdp.mapper.DtoMapper;
+import adeo.leroymerlin.cdp.readmodel.BandSummaryView;
+import adeo.leroymerlin.cdp.readmodel.EventBandsView;
+import adeo.leroymerlin.cdp.readmodel.EventCatalog;
+import adeo.leroymerlin.cdp.readmodel.EventProjection;
+import adeo.leroymerlin.cdp.readmodel.EventReadModel;
+import adeo.leroymerlin.cdp.readmodel.EventView;
+import adeo.leroymerlin.cdp.repository.EventBandRow;
+import adeo.leroymerlin.cdp.repository.EventJdbcRepository;
+import adeo.leroymerlin.cdp.repository.EventRating;
 import adeo.leroymerlin.cdp.repository.EventRepository;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import adeo.leroymerlin.cdp.repository.EventSummaryView;
+import adeo.leroymerlin.cdp.search.EventRanking;
+import adeo.leroymerlin.cdp.search.EventSearchEngine;
+import adeo.leroymerlin.cdp.search.NameSuggester;
+import adeo.leroymerlin.cdp.search.SearchResult;
+import adeo.leroymerlin.cdp.search.SearchResultCache;
+import adeo.leroymerlin.cdp.search.Suggestion;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Service
 public class EventService {
 
+    static final int DEFAULT_SUGGESTIONS = 10;
+
     private final EventRepository eventRepository;
+    private final EventJdbcRepository eventJdbcRepository;
+    private final EventSearchEngine eventSearchEngine;
+    private final SearchResultCache searchResultCache;
+    private final EventReadModel eventReadModel;
+    private final PaginationProperties paginationProperties;
+    private final RatingBuffer ratingBuffer;
+    private final NameSuggester nameSuggester;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public EventService(EventRepository eventRepository) {
+    public EventService(EventRepository eventRepository, EventJdbcRepository eventJdbcRepository,
+                        EventSearchEngine eventSearchEngine, SearchResultCache searchResultCache,
+                        EventReadModel eventReadModel, PaginationProperties paginationProperties,
+                        RatingBuffer ratingBuffer, NameSuggester nameSuggester,
+                        ApplicationEventPublisher eventPublisher) {
         this.eventRepository = eventRepository;
+        this.eventJdbcRepository = eventJdbcRepository;
+        this.eventSearchEngine = eventSearchEngine;
+        this.searchResultCache = searchResultCache;
+        this.eventReadModel = eventReadModel;
+        this.paginationProperties = paginationProperties;
+        this.ratingBuffer = ratingBuffer;
+        this.nameSuggester = nameSuggester;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Returns all events.
+     * The events are served from the read model snapshot, which is serialized once and updated after each mutation.
+     *
+     * @return the current snapshot of all events
+     */
+    public EventCatalog getEvents() {
+        return eventReadModel.getCatalog();
+    }
+
+    /**
+     * Returns a page of events ordered by id.
+     * The ids of the page are selected by keyset on the id, then only their graphs are loaded,
+     * so the cost of a page does not depend on its position nor on the size of the catalogue.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the requested page size, or null for the default one
+     * @return the page of events
+     * @throws InvalidCursorException if the cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<EventView> getEvents(String cursor, Integer size) {
+        int pageSize = paginationProperties.pageSize(size);
+        List<Long> ids = eventRepository.findIdsAfter(CursorPage.decode(cursor), Limit.of(pageSize + 1));
+        boolean hasNext = ids.size() > pageSize;
+        List<Long> pageIds = hasNext ? ids.subList(0, pageSize) : ids;
+        List<EventView> events = pageIds.isEmpty() ? List.of() : DtoMapper.toEventViews(eventRepository.findAllWithBandsAndMembersByIdIn(pageIds));
+        return CursorPage.of(events, hasNext, EventView::id);
     }
 
     /**
-     * Returns a list of all events.
+     * Returns a page of events ordered by id, reduced to the given projection.
+     * The summaries are selected by a constructor projection and the band names by a second one without members,
+     * so the associations left out of the projection are neither loaded nor serialized.
      *
-     * @return a list of all events
+     * @param cursor     the cursor returned with the previous page, or null for the first page
+     * @param size       the requested page size, or null for the default one
+     * @param projection the projection of the events
+     * @return the page of projected events
+     * @throws InvalidCursorException if the cursor is invalid
      */
     @Transactional(readOnly = true)
-    @Cacheable("events")
-    public List<Event> getEvents() {
-        return eventRepository.findAll();
+    public CursorPage<?> getEvents(String cursor, Integer size, EventProjection projection) {
+        if (projection == EventProjection.FULL) {
+            return getEvents(cursor, size);
+        }
+        int pageSize = paginationProperties.pageSize(size);
+        List<Long> ids = eventRepository.findIdsAfter(CursorPage.decode(cursor), Limit.of(pageSize + 1));
+        boolean hasNext = ids.size() > pageSize;
+        List<Long> pageIds = hasNext ? ids.subList(0, pageSize) : ids;
+        List<EventSummaryView> summaries = pageIds.isEmpty() ? List.of() : eventRepository.findSummariesByIdIn(pageIds);
+        if (projection == EventProjection.SUMMARY) {
+            return CursorPage.of(summaries, hasNext, EventSummaryView::id);
+        }
+        Map<Long, List<BandSummaryView>> bandsByEvent = new HashMap<>();
+        if (!summaries.isEmpty()) {
+            for (EventBandRow row : eventRepository.findBandsByEventIdIn(pageIds)) {
+                bandsByEvent.computeIfAbsent(row.eventId(), eventId -> new ArrayList<>())
+                        .add(new BandSummaryView(row.bandId(), row.bandName()));
+            }
+        }
+        List<EventBandsView> events = summaries.stream()
+                .map(summary -> EventBandsView.of(summary, bandsByEvent.getOrDefault(summary.id(), List.of())))
+                .toList();
+        return CursorPage.of(events, hasNext, EventBandsView::id);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getEvents(String, Integer)}, run on the application task executor.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the requested page size, or null for the default one
+     * @return the future page of events
+     */
+    @Async
+    @Transactional(readOnly = true)
+    public CompletableFuture<CursorPage<EventView>> getEventsAsync(String cursor, Integer size) {
+        return CompletableFuture.completedFuture(getEvents(cursor, size));
+    }
+
+    /**
+     * Passes every event, ordered by id, to the given consumer as it is read from the database.
+     *
+     * @param consumer the consumer of the events
+     */
+    public void streamEvents(Consumer<EventView> consumer) {
+        eventJdbcRepository.streamEvents(consumer);
     }
 
     /**
      * Deletes the event with the given id.
+     * The event is deleted with a single statement, without loading it.
      * If the event does not exist, a ResourceNotFoundException is thrown.
      *
      * @param id the id of the event to delete
      * @throws ResourceNotFoundException if the event with the given id does not exist
      */
     @Transactional
-    @CacheEvict(value = "events", allEntries = true)
     public void delete(Long id) {
-        if (!eventRepository.existsById(id)) {
+        if (eventJdbcRepository.deleteEvents(List.of(id)) == 0) {
             throw new ResourceNotFoundException("Event not found with id: " + id);
         }
-        eventRepository.deleteById(id);
+        eventPublisher.publishEvent(new EventChange.Deleted(List.of(id)));
     }
 
     /**
-     * Updates the event with the given id.
-     * The event is updated with the comment and number of stars from the given event.
+     * Deletes the events matching every given criterion with a single set-based statement.
+     *
+     * @param criteria the ids and/or the title fragment of the events to delete
+     * @return the ids of the deleted events
+     * @throws InvalidRequestException if no criterion is given
+     */
+    @Transactional
+    public List<Long> deleteEvents(EventDeletionDTO criteria) {
+        if (criteria.getIds() == null && criteria.getTitleContains() == null) {
+            throw new InvalidRequestException("At least one deletion criterion is required");
+        }
+        List<Long> ids = eventJdbcRepository.deleteMatching(criteria.getIds(), criteria.getTitleContains());
+        if (!ids.isEmpty()) {
+            eventPublisher.publishEvent(new EventChange.Deleted(ids));
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the event with the given id, with its whole band and member graph initialized.
+     *
+     * @param id the id of the event
+     * @return the event
+     * @throws ResourceNotFoundException if the event with the given id does not exist
+     */
+    @Transactional(readOnly = true)
+    public Event getEvent(Long id) {
+        return eventRepository.findAllWithBandsAndMembersByIdIn(List.of(id)).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + id));
+    }
+
+    /**
+     * Updates the event with the given id, whatever its version.
      *
      * @param id    the id of the event to update
      * @param event the event with the comment and number of stars to update
+     * @see #updateEvent(Long, Event, Long)
      */
     @Transactional
-    @CacheEvict(value = "events", allEntries = true)
     public void updateEvent(Long id, Event event) {
+        updateEvent(id, event, null);
+    }
+
+    /**
+     * Updates the event with the given id.
+     * The event is updated with the comment and number of stars from the given event.
+     * The update is optimistic: it fails if the event is modified concurrently, instead of overwriting the other change.
+     *
+     * @param id              the id of the event to update
+     * @param event           the event with the comment and number of stars to update
+     * @param expectedVersion the version the event must have to be updated, or null to update any version
+     * @return the new version of the event
+     * @throws ResourceNotFoundException         if the event with the given id does not exist
+     * @throws PreconditionFailedException       if the event does not have the expected version
+     * @throws OptimisticLockingFailureException if the event is modified concurrently
+     */
+    @Transactional
+    public Long updateEvent(Long id, Event event, Long expectedVersion) {
         Event existingEvent = eventRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(existingEvent.getVersion())) {
+            throw new PreconditionFailedException("Event " + id + " is at version " + existingEvent.getVersion());
+        }
         existingEvent.setComment(event.getComment());
         existingEvent.setNbStars(event.getNbStars());
         eventRepository.save(existingEvent);
+        // Surfaces a concurrent modification here and increments the version
+        eventRepository.flush();
+        eventPublisher.publishEvent(new EventChange.Reviewed(
+                List.of(new EventReviewDTO(id, existingEvent.getNbStars(), existingEvent.getComment()))));
+        return existingEvent.getVersion();
+    }
+
+    /**
+     * Rates the event with the given id.
+     * The stars and the vote are added to the aggregates of the event by a single conditional update,
+     * so concurrent ratings never overwrite each other and writers are not serialized by a lock held across requests.
+     * In write-behind mode, an unconditional rating is only buffered, it is observed by the events snapshot at once
+     * and written to the database by the next flush of the {@link RatingBuffer}.
+     *
+     * @param id              the id of the rated event
+     * @param stars           the stars given, between 1 and 5
+     * @param expectedVersion the version the event must have to be rated, or null to rate any version
+     * @return the new rating aggregates of the event, without version if the rating is buffered
+     * @throws InvalidRequestException     if the stars are out of range
+     * @throws ResourceNotFoundException   if the event with the given id does not exist
+     * @throws PreconditionFailedException if the event does not have the expected version
+     */
+    @Transactional
+    public EventRating rate(Long id, Integer stars, Long expectedVersion) {
+        if (stars == null || stars < 1 || stars > 5) {
+            throw new InvalidRequestException("Stars must be between 1 and 5");
+        }
+        if (ratingBuffer.isEnabled() && expectedVersion == null) {
+            EventView ratedEvent = ratingBuffer.add(id, stars);
+            if (ratedEvent == null) {
+                throw new ResourceNotFoundException("Event not found with id: " + id);
+            }
+            return new EventRating(id, ratedEvent.starTotal(), ratedEvent.voteCount(), null);
+        }
+        if (eventJdbcRepository.addRating(id, stars, 1, expectedVersion) == 0) {
+            EventRating current = eventJdbcRepository.findRating(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + id));
+            throw new PreconditionFailedException("Event " + id + " is at version " + current.version());
+        }
+        eventPublisher.publishEvent(new EventChange.Rated(id, stars, 1));
+        return eventJdbcRepository.findRating(id).orElseThrow();
+    }
+
+    /**
+     * Applies the given reviews in a single transaction, as JDBC batches instead of one load and save per event.
+     * The caches are invalidated once for the whole batch.
+     *
+     * @param reviews the reviews to apply
+     * @return the result of each review, in the same order
+     */
+    @Transactional
+    public List<EventReviewResultDTO> updateReviews(List<EventReviewDTO> reviews) {
+        int[] updateCounts = eventJdbcRepository.updateReviews(reviews);
+        List<EventReviewResultDTO> results = new ArrayList<>(reviews.size());
+        List<EventReviewDTO> appliedReviews = new ArrayList<>(reviews.size());
+        for (int i = 0; i < reviews.size(); i++) {
+            EventReviewDTO review = reviews.get(i);
+            boolean updated = updateCounts[i] > 0 || updateCounts[i] == Statement.SUCCESS_NO_INFO;
+            results.add(new EventReviewResultDTO(review.getId(),
+                    updated ? EventReviewResultDTO.Status.UPDATED : EventReviewResultDTO.Status.NOT_FOUND));
+            if (updated) {
+                appliedReviews.add(review);
+            }
+        }
+        if (!appliedReviews.isEmpty()) {
+            eventPublisher.publishEvent(new EventChange.Reviewed(appliedReviews));
+        }
+        return results;
     }
 
     /**
      * Returns a list of events filtered by the query parameter.
      * The query parameter is used to filter the events, bands and members by their names.
      * The result is a list of events with bands and members that contain the query parameter in their names.
-     * The result is sorted by the number of bands and members that match the query parameter.
+     * The result is sorted by relevance, scored on the number of matching titles, bands and members
+     * and on where the query occurs in their names, see {@link EventRanking}.
+     * The filtering itself is delegated to the configured {@link EventSearchEngine}, which opens its own read-only
+     * transaction when it reads the database, so that a cached result takes no connection, and the result is cached per normalized query, along with its ranking, until one of its events is modified.
      *
      * @param query the query parameter used to filter the events, bands and members
      * @return a list of events filtered by the query parameter
      */
-    @Transactional(readOnly = true)
     public List<EventDTO> getFilteredEvents(String query) {
-        List<Event> events = eventRepository.findAll();
-        String lowerCaseQuery = query.toLowerCase();
+        return searchEvents(query).ranked();
+    }
 
-        List<Event> filteredEvents = filterEvents(events, lowerCaseQuery);
-        return addCounts(filteredEvents).stream()
-                .map(DtoMapper::toEventDTO)
-                .toList();
+    /**
+     * Returns the most relevant events filtered by the query parameter.
+     * Only the returned events are ordered, the others are discarded by a heap bounded by the limit.
+     *
+     * @param query the query parameter used to filter the events, bands and members
+     * @param limit the maximum number of returned events
+     * @return at most limit events, the most relevant first
+     * @throws InvalidRequestException if the limit is not positive
+     */
+    public List<EventDTO> getFilteredEvents(String query, int limit) {
+        if (limit < 1) {
+            throw new InvalidRequestException("Limit must be positive");
+        }
+        return EventRanking.top(searchEvents(query), limit);
     }
 
     /**
-     * Filters the events by the query parameter.
-     * The query parameter is used to filter the events, bands and members by their names.
-     * The result is a list of events with bands and members that contain the query parameter in their names.
+     * Asynchronous variant of {@link #getFilteredEvents(String)}, run on the application task executor.
+     *
+     * @param query the query parameter used to filter the events, bands and members
+     * @return the future list of filtered events
+     */
+    @Async
+    public CompletableFuture<List<EventDTO>> getFilteredEventsAsync(String query) {
+        return CompletableFuture.completedFuture(getFilteredEvents(query));
+    }
+
+    /**
+     * Returns a page of the events filtered by the query parameter, ordered by id.
+     * The page is sliced from the cached result of the query.
      *
-     * @param events the list of events to filter
      * @param query  the query parameter used to filter the events, bands and members
-     * @return a list of events filtered by the query parameter
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the requested page size, or null for the default one
+     * @return the page of filtered events
+     * @throws InvalidCursorException if the cursor is invalid
      */
-    private List<Event> filterEvents(List<Event> events, String query) {
-        return events.stream()
-                .map(event -> {
-                    Set<Band> filteredBands = filterBands(event.getBands(), query);
-                    event.setBands(filteredBands);
-                    return event;
-                })
-                .filter(event -> !event.getBands().isEmpty())
-                .toList();
+    public CursorPage<EventDTO> getFilteredEvents(String query, String cursor, Integer size) {
+        int pageSize = paginationProperties.pageSize(size);
+        long afterId = CursorPage.decode(cursor);
+        List<EventDTO> filteredEvents = searchEvents(query);
+        int from = indexAfter(filteredEvents, afterId);
+        int to = Math.min(from + pageSize, filteredEvents.size());
+        return CursorPage.of(filteredEvents.subList(from, to), to < filteredEvents.size(), EventDTO::getId);
     }
 
     /**
-     * Filters the bands by the query parameter.
-     * The query parameter is used to filter the bands and members by their names.
-     * The result is a set of bands with members that contain the query parameter in their names.
+     * Returns the band and member names completing the given prefix, from the in-memory {@link NameSuggester},
+     * without touching the database nor the search engine.
      *
-     * @param bands the set of bands to filter
-     * @param query the query parameter used to filter the bands and members
-     * @return a set of bands filtered by the query parameter
+     * @param prefix the typed prefix
+     * @param limit  the maximum number of completions, or null for {@value #DEFAULT_SUGGESTIONS}
+     * @return the completions, the names appearing in the most events first
+     * @throws InvalidRequestException if the limit is not between 1 and {@value NameSuggester#MAX_SUGGESTIONS}
      */
-    private Set<Band> filterBands(Set<Band> bands, String query) {
-        return bands.stream()
-                .map(band -> {
-                    Set<Member> filteredMembers = filterMembers(band.getMembers(), query);
-                    band.setMembers(filteredMembers);
-                    return band;
-                })
-                .filter(band -> !band.getMembers().isEmpty())
-                .collect(Collectors.toSet());
+    public List<Suggestion> suggest(String prefix, Integer limit) {
+        int size = limit == null ? DEFAULT_SUGGESTIONS : limit;
+        if (size < 1 || size > NameSuggester.MAX_SUGGESTIONS) {
+            throw new InvalidRequestException("Limit must be between 1 and " + NameSuggester.MAX_SUGGESTIONS);
+        }
+        return nameSuggester.suggest(prefix, size);
     }
 
     /**
-     * Filters the members by the query parameter.
-     * The query parameter is used to filter the members by their names.
-     * The result is a set of members that contain the query parameter in their names.
+     * Binary-searches the events ordered by id for the first one after the given id.
      *
-     * @param members the set of members to filter
-     * @param query   the query parameter used to filter the members
-     * @return a set of members filtered by the query parameter
+     * @param events  the events ordered by id
+     * @param afterId the id of the last event of the previous page
+     * @return the index of the first event whose id is greater than afterId, or the size of the list
      */
-    private Set<Member> filterMembers(Set<Member> members, String query) {
-        return members.stream()
-                .filter(member -> member.getName().toLowerCase().contains(query))
-                .collect(Collectors.toSet());
+    private static int indexAfter(List<EventDTO> events, long afterId) {
+        int low = 0;
+        int high = events.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (events.get(middle).getId() <= afterId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
     }
 
     /**
-     * Adds the counts of bands and members to the event title and band name.
+     * Returns the events filtered by the query parameter ordered by id, from the cache or the search engine.
      *
-     * @param events the list of events to add the counts to
-     * @return a list of events with the counts of bands and members added to the title and name
+     * @param query the query parameter used to filter the events, bands and members
+     * @return the filtered events ordered by id
      */
-    private List<Event> addCounts(List<Event> events) {
-        return events.stream()
-                .map(event -> {
-                    long bandCount = event.getBands().size();
-                    event.setTitle(event.getTitle() + " [" + bandCount + "]");
-                    Set<Band> updatedBands = event.getBands().stream()
-                            .map(band -> {
-                                long memberCount = band.getMembers().size();
-                                Band updatedBand = new Band();
-                                updatedBand.setName(band.getName() + " [" + memberCount + "]");
-                                updatedBand.setMembers(band.getMembers());
-                                return updatedBand;
-                            })
-                            .collect(Collectors.toSet());
-                    event.setBands(updatedBands);
-                    return event;
-                })
-                .toList();
+    private SearchResult searchEvents(String query) {
+        return searchResultCache.get(query, eventSearchEngine::search);
     }
 }
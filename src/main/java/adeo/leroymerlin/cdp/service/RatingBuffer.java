@@ -0,0 +1,153 @@
+package adeo.leroymerlin.cdp.service;
+
+import adeo.leroymerlin.cdp.config.RatingProperties;
+import adeo.leroymerlin.cdp.readmodel.EventReadModel;
+import adeo.leroymerlin.cdp.readmodel.EventView;
+import adeo.leroymerlin.cdp.repository.EventJdbcRepository;
+import adeo.leroymerlin.cdp.repository.RatingDelta;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer of the ratings, used when {@code cdp.ratings.write-behind} is enabled.
+ * <p>
+ * Ratings are aggregated per event in the pending ratings of the {@link EventReadModel}, so that the events snapshot
+ * observes them at once, and flushed as a single JDBC batch on a schedule, when the number of buffered events
+ * reaches the threshold, and on graceful shutdown. The threshold flush is handed to the task scheduler, so that
+ * no rating request waits for it. The flushed ratings only leave the pending ones once written, a flush that fails
+ * leaves them pending to be retried.
+ * <p>
+ * Durability: a rating is acknowledged once buffered, the ratings buffered since the last flush
+ * are lost if the process stops without a graceful shutdown.
+ */
+@Component
+public class RatingBuffer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RatingBuffer.class);
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final EventJdbcRepository eventJdbcRepository;
+    private final EventReadModel eventReadModel;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final boolean enabled;
+    private final int flushThreshold;
+
+    public RatingBuffer(EventJdbcRepository eventJdbcRepository, EventReadModel eventReadModel,
+                        PlatformTransactionManager transactionManager, TaskScheduler taskScheduler,
+                        RatingProperties ratingProperties) {
+        this.eventJdbcRepository = eventJdbcRepository;
+        this.eventReadModel = eventReadModel;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskScheduler = taskScheduler;
+        this.enabled = ratingProperties.writeBehind();
+        this.flushThreshold = ratingProperties.flushThreshold();
+    }
+
+    /**
+     * Returns whether the ratings are written behind through this buffer.
+     *
+     * @return true if {@code cdp.ratings.write-behind} is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Buffers a rating, coalesced with the other buffered ratings of the same event.
+     * The caller crossing the flush threshold schedules a flush, unless one is already scheduled.
+     *
+     * @param eventId the id of the rated event
+     * @param stars   the stars given
+     * @return the rated event, including its buffered ratings, or null if the event does not exist
+     */
+    public EventView add(Long eventId, long stars) {
+        EventView ratedEvent = eventReadModel.addRating(eventId, stars, 1);
+        if (ratedEvent == null) {
+            return null;
+        }
+        if (eventReadModel.pendingRatingCount() >= flushThreshold && flushScheduled.compareAndSet(false, true)) {
+            try {
+                taskScheduler.schedule(this::runScheduledFlush, Instant.now());
+            } catch (TaskRejectedException e) {
+                // Shutting down, the buffer is flushed on shutdown
+                flushScheduled.set(false);
+            }
+        }
+        return ratedEvent;
+    }
+
+    /**
+     * Returns the number of events having buffered ratings.
+     *
+     * @return the number of buffered events
+     */
+    public int size() {
+        return eventReadModel.pendingRatingCount();
+    }
+
+    /**
+     * Writes the buffered ratings to the database in a single transaction and moves them to the stored events.
+     * Nothing is flushed when the ratings are not written behind.
+     *
+     * @return the number of flushed events
+     */
+    @Scheduled(fixedDelayString = "${cdp.ratings.flush-interval:PT1S}")
+    public int flush() {
+        if (!enabled) {
+            return 0;
+        }
+        flushLock.lock();
+        try {
+            return flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void runScheduledFlush() {
+        try {
+            flush();
+        } finally {
+            flushScheduled.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int flushed = flush();
+        if (flushed > 0) {
+            LOGGER.info("Flushed the buffered ratings of {} events on shutdown", flushed);
+        }
+    }
+
+    private int flushPending() {
+        Map<Long, RatingDelta> batch = eventReadModel.pendingRatings();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> eventJdbcRepository.addRatings(batch));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to flush the buffered ratings of {} events, they will be retried", batch.size(), e);
+            return 0;
+        }
+        // The ratings added while writing the batch stay pending for the next flush
+        eventReadModel.applyFlushedRatings(batch);
+        return batch.size();
+    }
+}
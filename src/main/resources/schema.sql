@@ -3,7 +3,10 @@ create table member (id bigint generated by default as identity (start with 1),
 create table band_members (band_id bigint not null, members_id bigint not null, primary key (band_id, members_id));
 alter table band_members add constraint FK551i3sllw1wj7ex6nir16blse foreign key (members_id) references member;
 alter table band_members add constraint FK551i3sllw1wj7ex6nir16blsf foreign key (band_id) references band;
-create table event (id bigint generated by default as identity (start with 1), comment varchar(255), nb_stars integer, img_url varchar(255), title varchar(255), primary key (id));
+create table event (id bigint generated by default as identity (start with 1), comment varchar(255), nb_stars integer, img_url varchar(255), title varchar(255), deleted_at timestamp, version bigint default 0 not null, star_total bigint default 0 not null, vote_count bigint default 0 not null, primary key (id));
 create table event_bands (event_id bigint not null, bands_id bigint not null, primary key (event_id, bands_id));
 alter table event_bands add constraint FK551i3sllw1wj7ex6nir16blsm foreign key (bands_id) references band;
-alter table event_bands add constraint FKs4xm7q8i3uxvaiswj1c35nnxw foreign key (event_id) references event;
+alter table event_bands add constraint FKs4xm7q8i3uxvaiswj1c35nnxw foreign key (event_id) references event on delete cascade;
+create index idx_band_members_member_band on band_members (members_id, band_id);
+create index idx_event_bands_band_event on event_bands (bands_id, event_id);
+create index idx_event_deleted_at on event (deleted_at);
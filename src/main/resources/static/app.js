@@ -18,7 +18,8 @@ function EventService($http){
     }
 
     function getEvents(){
-        return $http.get('/api/events/')
+        // The list shows the band names only, their members are not requested
+        return $http.get('/api/events/', {params: {view: 'bands'}})
             .then(getEventsComplete);
 
         function getEventsComplete(response){
@@ -0,0 +1,133 @@
+package adeo.leroymerlin.cdp;
+
+import adeo.leroymerlin.cdp.cache.BoundedCache;
+import adeo.leroymerlin.cdp.cache.CacheStatistics;
+import adeo.leroymerlin.cdp.config.CacheProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BoundedCacheTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    @Test
+    @DisplayName("Least recently used entries are evicted beyond the maximum weight")
+    void whenMaximumWeightExceededThenEvictLeastRecentlyUsed() {
+        // GIVEN
+        BoundedCache cache = new BoundedCache("test", new CacheProperties.Spec(4, Duration.ZERO, Duration.ZERO), ticker::get);
+        cache.put("a", List.of(1, 2));
+        cache.put("b", "single");
+        cache.get("a");
+
+        // WHEN
+        cache.put("c", List.of(1, 2));
+
+        // THEN
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        CacheStatistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.evictionCount());
+        assertEquals(4, statistics.weight());
+        assertEquals(2, statistics.size());
+    }
+
+    @Test
+    @DisplayName("Entries expire after their time to live")
+    void whenTimeToLiveElapsedThenEntryExpires() {
+        // GIVEN
+        BoundedCache cache = new BoundedCache("test", new CacheProperties.Spec(10, Duration.ofSeconds(10), Duration.ZERO), ticker::get);
+        cache.put("a", "value");
+
+        // WHEN
+        ticker.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // THEN
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.getStatistics().evictionCount());
+        assertEquals(0, cache.getStatistics().size());
+    }
+
+    @Test
+    @DisplayName("Only the first reader reloads an entry due for refresh")
+    void whenRefreshDueThenFirstReaderReloads() {
+        // GIVEN
+        BoundedCache cache = new BoundedCache("test", new CacheProperties.Spec(10, Duration.ZERO, Duration.ofSeconds(5)), ticker::get);
+        cache.get("a", () -> "initial");
+        ticker.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        // WHEN
+        String reloaded = cache.get("a", () -> "reloaded");
+
+        // THEN
+        assertEquals("reloaded", reloaded);
+        assertEquals("reloaded", cache.get("a", String.class));
+        assertEquals(2, cache.getStatistics().loadCount());
+    }
+
+    @Test
+    @DisplayName("Other readers keep the current value while an entry is being refreshed")
+    void whenRefreshInProgressThenOtherReadersGetCurrentValue() {
+        // GIVEN
+        BoundedCache cache = new BoundedCache("test", new CacheProperties.Spec(10, Duration.ZERO, Duration.ofSeconds(5)), ticker::get);
+        cache.put("a", "initial");
+        ticker.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        // WHEN
+        Cache.ValueWrapper firstRead = cache.get("a");
+        String otherRead = cache.get("a", String.class);
+        cache.put("a", "reloaded");
+
+        // THEN
+        assertNull(firstRead);
+        assertEquals("initial", otherRead);
+        assertEquals("reloaded", cache.get("a", String.class));
+    }
+
+    @Test
+    @DisplayName("A value loaded while the cache was invalidated is returned but not cached")
+    void whenEvictedDuringLoadThenLoadedValueIsNotCached() {
+        // GIVEN
+        BoundedCache cache = new BoundedCache("test", new CacheProperties.Spec(10, Duration.ZERO, Duration.ZERO), ticker::get);
+
+        // WHEN
+        String loaded = cache.get("a", () -> {
+            cache.evictIf(value -> true);
+            return "stale";
+        });
+
+        // THEN
+        assertEquals("stale", loaded);
+        assertNull(cache.get("a"));
+        assertEquals("fresh", cache.get("a", () -> "fresh"));
+        assertEquals("fresh", cache.get("a", String.class));
+    }
+
+    @Test
+    @DisplayName("Hits and misses are reported in the statistics")
+    void whenLookupThenStatisticsAreRecorded() {
+        // GIVEN
+        BoundedCache cache = new BoundedCache("test", new CacheProperties.Spec(10, Duration.ZERO, Duration.ZERO), ticker::get);
+
+        // WHEN
+        cache.get("a", () -> "value");
+        cache.get("a", () -> "value");
+        cache.get("a", () -> "value");
+
+        // THEN
+        CacheStatistics statistics = cache.getStatistics();
+        assertEquals(2, statistics.hitCount());
+        assertEquals(1, statistics.missCount());
+        assertEquals(2.0 / 3, statistics.hitRatio());
+        assertEquals(1, statistics.loadCount());
+    }
+}
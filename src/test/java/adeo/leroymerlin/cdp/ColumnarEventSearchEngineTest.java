@@ -0,0 +1,162 @@
+package adeo.leroymerlin.cdp;
+
+import adeo.leroymerlin.cdp.change.EventChange;
+import adeo.leroymerlin.cdp.config.SearchProperties;
+import adeo.leroymerlin.cdp.dto.EventDTO;
+import adeo.leroymerlin.cdp.dto.MemberDTO;
+import adeo.leroymerlin.cdp.entity.Event;
+import adeo.leroymerlin.cdp.exception.SearchTimeoutException;
+import adeo.leroymerlin.cdp.metrics.MetricsRegistry;
+import adeo.leroymerlin.cdp.repository.EventRepository;
+import adeo.leroymerlin.cdp.search.ColumnarEventSearchEngine;
+import adeo.leroymerlin.cdp.search.IndexedEventSearchEngine;
+import adeo.leroymerlin.cdp.search.NameIndex;
+import adeo.leroymerlin.cdp.util.TestFileLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ColumnarEventSearchEngineTest {
+
+    private static final String ALL_EVENTS_DB_RESULT = "service/all-events-db-result.json";
+
+    private EventRepository eventRepository;
+    private PlatformTransactionManager transactionManager;
+    private ColumnarEventSearchEngine columnarEngine;
+    private IndexedEventSearchEngine indexedEngine;
+
+    @BeforeEach
+    void setUp() {
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        assert events != null;
+        eventRepository = mock(EventRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        when(eventRepository.findAllWithBandsAndMembersByIdIn(anyCollection())).thenAnswer(invocation -> events.stream()
+                .filter(event -> invocation.<Collection<Long>>getArgument(0).contains(event.getId()))
+                .toList());
+        // Without a search pool, every search is scanned in the test thread
+        columnarEngine = new ColumnarEventSearchEngine(eventRepository, new MetricsRegistry(), transactionManager,
+                new SearchProperties(1, Integer.MAX_VALUE, 1, Duration.ZERO), null);
+        indexedEngine = new IndexedEventSearchEngine(eventRepository, new NameIndex(), new MetricsRegistry());
+    }
+
+    @Test
+    @DisplayName("Scanned events, names, flags and relevances are the ones of the indexed search")
+    void whenSearchThenSameResultsAsIndexedSearch() {
+        for (String query : List.of("Wa", "walsh", "Pink", "metal", "fest", "é", "zzz")) {
+            // WHEN
+            List<EventDTO> scannedEvents = columnarEngine.search(query);
+            List<EventDTO> indexedEvents = indexedEngine.search(query);
+
+            // THEN
+            assertEquals(indexedEvents, scannedEvents, query);
+            assertEquals(indexedEvents.stream().map(EventDTO::getRelevance).toList(),
+                    scannedEvents.stream().map(EventDTO::getRelevance).toList(), query);
+        }
+    }
+
+    @Test
+    @DisplayName("A band playing at several matching events is filtered once, its bands and members in id order")
+    void whenBandMatchesInSeveralEventsThenSameBandDTOInIdOrder() {
+        // WHEN
+        List<EventDTO> scannedEvents = columnarEngine.search("Pink");
+        List<EventDTO> indexedEvents = indexedEngine.search("Pink");
+
+        // THEN
+        assertEquals(List.of(1000L, 1003L), scannedEvents.stream().map(EventDTO::getId).toList());
+        assertSame(scannedEvents.get(0).getBands().iterator().next(), scannedEvents.get(1).getBands().iterator().next());
+        assertEquals(namesInOrder(indexedEvents), namesInOrder(scannedEvents));
+    }
+
+    @Test
+    @DisplayName("Parallel search merges the results of its tasks in id order")
+    void whenSearchInParallelThenSameResultsAsSequentialSearch() {
+        // GIVEN
+        ForkJoinPool searchPool = new ForkJoinPool(3);
+        ColumnarEventSearchEngine parallelEngine = new ColumnarEventSearchEngine(eventRepository, new MetricsRegistry(),
+                transactionManager, new SearchProperties(3, 0, 0, Duration.ZERO), searchPool);
+        try {
+            for (String query : List.of("Wa", "Pink", "metal", "fest")) {
+                // WHEN
+                List<EventDTO> parallelEvents = parallelEngine.search(query);
+
+                // THEN
+                List<EventDTO> sequentialEvents = columnarEngine.search(query);
+                assertEquals(sequentialEvents, parallelEvents, query);
+                assertEquals(sequentialEvents.stream().map(EventDTO::getRelevance).toList(),
+                        parallelEvents.stream().map(EventDTO::getRelevance).toList(), query);
+            }
+        } finally {
+            searchPool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel search giving up once its time budget is spent")
+    void whenSearchExceedsTimeBudgetThenSearchTimeout() {
+        // GIVEN
+        ForkJoinPool searchPool = new ForkJoinPool(3);
+        ColumnarEventSearchEngine parallelEngine = new ColumnarEventSearchEngine(eventRepository, new MetricsRegistry(),
+                transactionManager, new SearchProperties(3, 0, 0, Duration.ofNanos(1)), searchPool);
+        try {
+            // THEN
+            assertThrows(SearchTimeoutException.class, () -> parallelEngine.search("Wa"));
+        } finally {
+            searchPool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Deleted events are masked without rebuilding the columnar catalogue")
+    void whenEventDeletedThenNoLongerFound() {
+        // GIVEN
+        assertEquals(List.of(1000L, 1003L), columnarEngine.search("Pink Floyd").stream().map(EventDTO::getId).toList());
+
+        // WHEN
+        columnarEngine.onChange(new EventChange.Deleted(List.of(1000L)));
+
+        // THEN
+        assertEquals(List.of(1003L), columnarEngine.search("Pink Floyd").stream().map(EventDTO::getId).toList());
+        assertTrue(columnarEngine.search("Metallica").isEmpty());
+        verify(eventRepository, times(1)).findAllWithBandsAndMembers();
+    }
+
+    @Test
+    @DisplayName("Columnar catalogue loaded once in a read-only transaction, the searches opening none")
+    void whenSearchThenLoadCatalogueInSingleReadOnlyTransaction() {
+        // WHEN
+        columnarEngine.search("Pink Floyd");
+        columnarEngine.search("Metallica");
+
+        // THEN
+        verify(transactionManager, times(1)).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        verify(eventRepository, times(1)).findAllWithBandsAndMembers();
+    }
+
+    private static List<String> namesInOrder(List<EventDTO> events) {
+        return events.stream()
+                .flatMap(event -> event.getBands().stream())
+                .flatMap(band -> Stream.concat(Stream.of(band.getName()), band.getMembers().stream().map(MemberDTO::getName)))
+                .toList();
+    }
+}
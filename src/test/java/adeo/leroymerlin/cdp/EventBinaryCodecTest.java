@@ -0,0 +1,75 @@
+package adeo.leroymerlin.cdp;
+
+import adeo.leroymerlin.cdp.codec.EventBinaryCodec;
+import adeo.leroymerlin.cdp.dto.BandDTO;
+import adeo.leroymerlin.cdp.dto.EventDTO;
+import adeo.leroymerlin.cdp.dto.MemberDTO;
+import adeo.leroymerlin.cdp.entity.Event;
+import adeo.leroymerlin.cdp.mapper.DtoMapper;
+import adeo.leroymerlin.cdp.util.TestFileLoader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventBinaryCodecTest {
+
+    private static final String ALL_EVENTS_DB_RESULT = "service/all-events-db-result.json";
+
+    @Test
+    @DisplayName("Decoded events are the encoded ones, the repeated names being written once")
+    void whenEncodeThenDecodeSameEvents() {
+        // GIVEN
+        List<Event> dbEvents = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        assert dbEvents != null;
+        // The ids are not serialized, as in JSON
+        List<EventDTO> events = dbEvents.stream()
+                .map(DtoMapper::toEventDTO)
+                .map(event -> new EventDTO(null, event.getTitle(), event.getImgUrl(), event.getBands(), event.isMatched()))
+                .toList();
+
+        // WHEN
+        byte[] payload = EventBinaryCodec.encode(events);
+
+        // THEN
+        assertEquals(events, EventBinaryCodec.decode(payload));
+        String content = new String(payload, StandardCharsets.ISO_8859_1);
+        assertEquals(content.indexOf("Queen Veronica Graves"), content.lastIndexOf("Queen Veronica Graves"));
+    }
+
+    @Test
+    @DisplayName("Matched flags and missing values are kept")
+    void whenEncodeMatchedAndNullValuesThenDecodeThem() {
+        // GIVEN
+        MemberDTO member = new MemberDTO("Queen Anika Walsh", true);
+        BandDTO band = new BandDTO("Metallica", Set.of(member), true);
+        EventDTO matchedEvent = new EventDTO(null, "GrasPop Metal Meeting", null, Set.of(band), true);
+        EventDTO emptyEvent = new EventDTO(null, null, null, null, false);
+
+        // WHEN
+        List<EventDTO> decoded = EventBinaryCodec.decode(EventBinaryCodec.encode(List.of(matchedEvent, emptyEvent)));
+
+        // THEN
+        assertEquals(List.of(matchedEvent, emptyEvent), decoded);
+        assertTrue(decoded.get(0).getBands().iterator().next().getMembers().iterator().next().isMatched());
+        assertNull(decoded.get(1).getImgUrl());
+        assertNull(decoded.get(1).getBands());
+    }
+
+    @Test
+    @DisplayName("A payload of another format is rejected")
+    void whenDecodeUnknownPayloadThenException() {
+        // GIVEN
+        byte[] payload = "[]".getBytes(StandardCharsets.UTF_8);
+
+        // WHEN / THEN
+        assertThrows(IllegalArgumentException.class, () -> EventBinaryCodec.decode(payload));
+    }
+}
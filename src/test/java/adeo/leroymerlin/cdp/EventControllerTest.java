@@ -1,31 +1,61 @@
 package adeo.leroymerlin.cdp;
 
+import adeo.leroymerlin.cdp.codec.EventBinaryCodec;
+import adeo.leroymerlin.cdp.codec.EventBinaryHttpMessageConverter;
+import adeo.leroymerlin.cdp.config.MetricsConfig;
 import adeo.leroymerlin.cdp.controller.EventController;
+import adeo.leroymerlin.cdp.dto.CursorPage;
 import adeo.leroymerlin.cdp.dto.EventDTO;
+import adeo.leroymerlin.cdp.dto.EventReviewDTO;
+import adeo.leroymerlin.cdp.dto.EventReviewResultDTO;
 import adeo.leroymerlin.cdp.entity.Event;
+import adeo.leroymerlin.cdp.exception.InvalidCursorException;
+import adeo.leroymerlin.cdp.exception.PreconditionFailedException;
 import adeo.leroymerlin.cdp.exception.ResourceNotFoundException;
+import adeo.leroymerlin.cdp.metrics.MetricsRegistry;
+import adeo.leroymerlin.cdp.readmodel.EventCatalog;
+import adeo.leroymerlin.cdp.readmodel.EventProjection;
+import adeo.leroymerlin.cdp.readmodel.EventView;
+import adeo.leroymerlin.cdp.search.Suggestion;
 import adeo.leroymerlin.cdp.service.EventService;
 import adeo.leroymerlin.cdp.util.TestFileLoader;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.ByteArrayInputStream;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(EventController.class)
+@Import({MetricsConfig.class, MetricsRegistry.class})
 class EventControllerTest {
     private static final String URL = "/api/events/";
 
@@ -35,6 +65,10 @@ class EventControllerTest {
 
     @Autowired
     private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MetricsRegistry metricsRegistry;
     @MockBean
     private EventService eventService;
 
@@ -47,8 +81,9 @@ class EventControllerTest {
     void whenFindEventsThenSuccessfulResponse() throws Exception {
 
         // GIVEN REQUESTED DATA IS IN DB
-        List<Event> mockedEvents = TestFileLoader.getListFromJsonFile(EXPECTED_RESULT_FIND_ALL_EVENTS, Event.class);
-        when(eventService.getEvents()).thenReturn(mockedEvents);
+        List<EventView> mockedEvents = TestFileLoader.getListFromJsonFile(EXPECTED_RESULT_FIND_ALL_EVENTS, EventView.class);
+        EventCatalog catalog = EventCatalog.of(mockedEvents, objectMapper.writer());
+        when(eventService.getEvents()).thenReturn(catalog);
         String expectedJson = TestFileLoader.getFileContent(EXPECTED_RESULT_FIND_ALL_EVENTS);
         assert expectedJson != null;
 
@@ -60,10 +95,146 @@ class EventControllerTest {
                 .andExpect(status().isOk())
                 // THEN THE RETURNED BODY IS A JSON
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                // THEN THE RETURNED ETAG IS THE ONE OF THE SNAPSHOT
+                .andExpect(header().string(HttpHeaders.ETAG, catalog.etag()))
                 // THEN THE RETURNED JSON IS AS EXPECTED
                 .andExpect(content().json(expectedJson));
     }
 
+    @Test
+    @DisplayName("Successful gzipped event access")
+    void whenFindEventsAcceptingGzipThenCompressedResponse() throws Exception {
+        // GIVEN REQUESTED DATA IS IN DB, ABOVE THE COMPRESSION THRESHOLD
+        List<EventView> mockedEvents = TestFileLoader.getListFromJsonFile(EXPECTED_RESULT_FIND_ALL_EVENTS, EventView.class);
+        EventCatalog catalog = EventCatalog.of(mockedEvents, objectMapper.writer());
+        when(eventService.getEvents()).thenReturn(catalog);
+        assertTrue(catalog.json().length >= 2048);
+
+        // WHEN A REQUEST ACCEPTING GZIP IS RECEIVED
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get(URL)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+                        .accept(MediaType.APPLICATION_JSON))
+                // THEN THE RETURNED STATUS IS 200
+                .andExpect(status().isOk())
+                // THEN THE RETURNED BODY IS A GZIPPED JSON
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)))
+                // THEN THE RETURNED ETAG IS THE ONE OF THE GZIPPED SNAPSHOT
+                .andExpect(header().string(HttpHeaders.ETAG, not(catalog.etag())))
+                .andReturn();
+
+        // THEN THE UNCOMPRESSED BODY IS THE JSON OF THE SNAPSHOT
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            assertArrayEquals(catalog.json(), gzip.readAllBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Successful gzipped event access when gzip is explicitly accepted after a refused wildcard")
+    void whenFindEventsAcceptingGzipAfterRefusedWildcardThenCompressedResponse() throws Exception {
+        // GIVEN REQUESTED DATA IS IN DB, ABOVE THE COMPRESSION THRESHOLD
+        List<EventView> mockedEvents = TestFileLoader.getListFromJsonFile(EXPECTED_RESULT_FIND_ALL_EVENTS, EventView.class);
+        EventCatalog catalog = EventCatalog.of(mockedEvents, objectMapper.writer());
+        when(eventService.getEvents()).thenReturn(catalog);
+
+        // WHEN A REQUEST REFUSING ANY CODING BUT GZIP IS RECEIVED
+        mvc.perform(MockMvcRequestBuilders
+                        .get(URL)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "*;q=0, gzip")
+                        .accept(MediaType.APPLICATION_JSON))
+                // THEN THE RETURNED STATUS IS 200
+                .andExpect(status().isOk())
+                // THEN THE RETURNED BODY IS GZIPPED
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+
+    @Test
+    @DisplayName("Successful event access with an up-to-date ETag")
+    void whenFindEventsWithMatchingEtagThenNotModifiedResponse() throws Exception {
+        // GIVEN REQUESTED DATA IS IN DB
+        List<EventView> mockedEvents = TestFileLoader.getListFromJsonFile(EXPECTED_RESULT_FIND_ALL_EVENTS, EventView.class);
+        EventCatalog catalog = EventCatalog.of(mockedEvents, objectMapper.writer());
+        when(eventService.getEvents()).thenReturn(catalog);
+
+        // WHEN A REQUEST WITH THE CURRENT ETAG IS RECEIVED
+        mvc.perform(MockMvcRequestBuilders
+                        .get(URL)
+                        .header(HttpHeaders.IF_NONE_MATCH, catalog.etag())
+                        .accept(MediaType.APPLICATION_JSON))
+                // THEN THE RETURNED STATUS IS 304
+                .andExpect(status().isNotModified())
+                // THEN NO BODY IS RETURNED
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    @DisplayName("Successful event access reduced to the summary view")
+    void whenFindEventsWithSummaryViewThenEventsWithoutBands() throws Exception {
+        // GIVEN REQUESTED DATA IS IN DB
+        List<EventView> mockedEvents = TestFileLoader.getListFromJsonFile(EXPECTED_RESULT_FIND_ALL_EVENTS, EventView.class);
+        EventCatalog catalog = EventCatalog.of(mockedEvents, objectMapper.writer());
+        when(eventService.getEvents()).thenReturn(catalog);
+
+        // WHEN A REQUEST FOR THE SUMMARY VIEW IS RECEIVED
+        mvc.perform(MockMvcRequestBuilders
+                        .get(URL)
+                        .param("view", "summary")
+                        .accept(MediaType.APPLICATION_JSON))
+                // THEN THE RETURNED STATUS IS 200
+                .andExpect(status().isOk())
+                // THEN THE RETURNED ETAG IS THE ONE OF THE PROJECTION
+                .andExpect(header().string(HttpHeaders.ETAG, catalog.etag(EventProjection.SUMMARY)))
+                // THEN THE EVENTS ARE RETURNED WITHOUT THEIR BANDS
+                .andExpect(jsonPath("$.length()", is(mockedEvents.size())))
+                .andExpect(jsonPath("$[0].title", is(mockedEvents.getFirst().title())))
+                .andExpect(jsonPath("$[0].bands").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Successful event access reduced to the bands view")
+    void whenFindEventsWithBandsViewThenBandsWithoutMembers() throws Exception {
+        // GIVEN REQUESTED DATA IS IN DB
+        List<EventView> mockedEvents = TestFileLoader.getListFromJsonFile(EXPECTED_RESULT_FIND_ALL_EVENTS, EventView.class);
+        when(eventService.getEvents()).thenReturn(EventCatalog.of(mockedEvents, objectMapper.writer()));
+
+        // WHEN A REQUEST FOR THE BANDS VIEW IS RECEIVED
+        mvc.perform(MockMvcRequestBuilders
+                        .get(URL)
+                        .param("view", "bands")
+                        .accept(MediaType.APPLICATION_JSON))
+                // THEN THE RETURNED STATUS IS 200
+                .andExpect(status().isOk())
+                // THEN THE BANDS ARE RETURNED WITHOUT THEIR MEMBERS
+                .andExpect(jsonPath("$[0].bands[0].name", is(mockedEvents.getFirst().bands().getFirst().name())))
+                .andExpect(jsonPath("$[0].bands[0].members").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Successful event access page by page")
+    void whenFindEventsPageThenSuccessfulResponse() throws Exception {
+        // GIVEN REQUESTED DATA IS IN DB
+        List<EventView> mockedEvents = TestFileLoader.getListFromJsonFile(EXPECTED_RESULT_FIND_ALL_EVENTS, EventView.class);
+        assert mockedEvents != null;
+        doReturn(CursorPage.of(mockedEvents.subList(0, 2), true, EventView::id))
+                .when(eventService).getEvents(null, 2, EventProjection.FULL);
+
+        // WHEN A GOOD REQUEST IS RECEIVED
+        mvc.perform(MockMvcRequestBuilders
+                        .get(URL)
+                        .param("size", "2")
+                        .accept(MediaType.APPLICATION_JSON))
+                // THEN THE RETURNED STATUS IS 200
+                .andExpect(status().isOk())
+                // THEN THE RETURNED BODY IS A JSON
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                // THEN THE PAGE HOLDS THE REQUESTED EVENTS AND THE CURSOR OF THE NEXT PAGE
+                .andExpect(jsonPath("$.items.length()", is(2)))
+                .andExpect(jsonPath("$.items[1].id", is(mockedEvents.get(1).id().intValue())))
+                .andExpect(jsonPath("$.nextCursor", is(CursorPage.encode(mockedEvents.get(1).id()))));
+    }
+
     @Test
     @DisplayName("Successful event access with query")
     void whenFindEventsWithQueryThenSuccessfulResponse() throws Exception {
@@ -85,6 +256,114 @@ class EventControllerTest {
                 .andExpect(content().json(expectedJson));
     }
 
+    @Test
+    @DisplayName("Successful access to the most relevant events with query")
+    void whenFindEventsWithQueryAndLimitThenSuccessfulResponse() throws Exception {
+        // GIVEN REQUESTED DATA IS IN DB
+        List<EventDTO> mockedEvents = TestFileLoader.getListFromJsonFile(EXPECTED_RESULT_FIND_EVENTS_WITH_QUERY, EventDTO.class);
+        when(eventService.getFilteredEvents("Wa", 1)).thenReturn(mockedEvents);
+        String expectedJson = TestFileLoader.getFileContent(EXPECTED_RESULT_FIND_EVENTS_WITH_QUERY);
+        assert expectedJson != null;
+
+        // WHEN A GOOD REQUEST IS RECEIVED
+        mvc.perform(MockMvcRequestBuilders
+                        .get(URL + "search/Wa")
+                        .param("limit", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                // THEN THE RETURNED STATUS IS 200
+                .andExpect(status().isOk())
+                // THEN THE RETURNED JSON IS THE ONE OF THE TOP EVENTS
+                .andExpect(content().json(expectedJson));
+    }
+
+    @Test
+    @DisplayName("Successful binary event access with query")
+    void whenFindEventsWithQueryAcceptingBinaryThenBinaryResponse() throws Exception {
+        // GIVEN REQUESTED DATA IS IN DB
+        List<EventDTO> mockedEvents = TestFileLoader.getListFromJsonFile(EXPECTED_RESULT_FIND_EVENTS_WITH_QUERY, EventDTO.class);
+        when(eventService.getFilteredEvents("Wa")).thenReturn(mockedEvents);
+
+        // WHEN A REQUEST ACCEPTING THE BINARY ENCODING IS RECEIVED
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get(URL + "search/Wa")
+                        .accept(EventBinaryCodec.MEDIA_TYPE))
+                // THEN THE RETURNED STATUS IS 200
+                .andExpect(status().isOk())
+                // THEN THE RETURNED BODY IS BINARY
+                .andExpect(content().contentType(EventBinaryCodec.MEDIA_TYPE))
+                .andReturn();
+
+        // THEN THE DECODED EVENTS ARE AS EXPECTED
+        assertEquals(mockedEvents, EventBinaryCodec.decode(result.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    @DisplayName("Successful binary event page access with query")
+    void whenFindEventsPageWithQueryAcceptingBinaryThenBinaryResponse() throws Exception {
+        // GIVEN REQUESTED DATA IS IN DB
+        List<EventDTO> mockedEvents = TestFileLoader.getListFromJsonFile(EXPECTED_RESULT_FIND_EVENTS_WITH_QUERY, EventDTO.class);
+        CursorPage<EventDTO> mockedPage = new CursorPage<>(mockedEvents, CursorPage.encode(1002L));
+        when(eventService.getFilteredEvents("Wa", null, 2)).thenReturn(mockedPage);
+
+        // WHEN A PAGE REQUEST ACCEPTING THE BINARY ENCODING IS RECEIVED
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get(URL + "search/Wa")
+                        .param("size", "2")
+                        .accept(EventBinaryCodec.MEDIA_TYPE))
+                // THEN THE RETURNED STATUS IS 200
+                .andExpect(status().isOk())
+                // THEN THE RETURNED BODY IS BINARY WITH THE NEXT CURSOR IN A HEADER
+                .andExpect(content().contentType(EventBinaryCodec.MEDIA_TYPE))
+                .andExpect(header().string(EventBinaryHttpMessageConverter.NEXT_CURSOR_HEADER, mockedPage.nextCursor()))
+                .andReturn();
+
+        // THEN THE DECODED EVENTS ARE THE ITEMS OF THE PAGE
+        assertEquals(mockedEvents, EventBinaryCodec.decode(result.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    @DisplayName("Successful suggestions for a prefix")
+    void whenSuggestThenSuccessfulResponse() throws Exception {
+        // GIVEN REQUESTED DATA IS IN THE SUGGESTER
+        when(eventService.suggest("pin", 5)).thenReturn(List.of(new Suggestion("Pink Floyd", Suggestion.Type.BAND, 2)));
+
+        // WHEN A GOOD REQUEST IS RECEIVED
+        mvc.perform(MockMvcRequestBuilders
+                        .get(URL + "suggest")
+                        .param("prefix", "pin")
+                        .param("limit", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                // THEN THE RETURNED STATUS IS 200
+                .andExpect(status().isOk())
+                // THEN THE RETURNED JSON HOLDS THE COMPLETIONS
+                .andExpect(jsonPath("$[0].name", is("Pink Floyd")))
+                .andExpect(jsonPath("$[0].type", is("BAND")))
+                .andExpect(jsonPath("$[0].events", is(2)));
+    }
+
+    @Test
+    @DisplayName("Successful asynchronous event access with query")
+    void whenFindEventsAsyncWithQueryThenSuccessfulResponse() throws Exception {
+        // GIVEN REQUESTED DATA IS IN DB
+        List<EventDTO> mockedEvents = TestFileLoader.getListFromJsonFile(EXPECTED_RESULT_FIND_EVENTS_WITH_QUERY, EventDTO.class);
+        when(eventService.getFilteredEventsAsync("Wa")).thenReturn(CompletableFuture.completedFuture(mockedEvents));
+        String expectedJson = TestFileLoader.getFileContent(EXPECTED_RESULT_FIND_EVENTS_WITH_QUERY);
+        assert expectedJson != null;
+
+        // WHEN A GOOD REQUEST IS RECEIVED
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get(URL + "async/search/Wa")
+                        .accept(MediaType.APPLICATION_JSON))
+                // THEN THE REQUEST IS PROCESSED ASYNCHRONOUSLY
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                // THEN THE RETURNED STATUS IS 200
+                .andExpect(status().isOk())
+                // THEN THE RETURNED JSON IS AS EXPECTED
+                .andExpect(content().json(expectedJson));
+    }
+
     @Test
     @DisplayName("Successful event deletion")
     void whenDeleteEventThenSuccessfulResponse() throws Exception {
@@ -117,6 +396,29 @@ class EventControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @DisplayName("Successful batch of reviews")
+    void whenUpdateReviewsThenSuccessfulResponse() throws Exception {
+        // GIVEN ONE OF THE REVIEWED EVENTS IS NOT IN DB
+        List<EventReviewDTO> reviews = List.of(new EventReviewDTO(1000L, 4, "Great"), new EventReviewDTO(666L, 1, "Unknown"));
+        when(eventService.updateReviews(reviews)).thenReturn(List.of(
+                new EventReviewResultDTO(1000L, EventReviewResultDTO.Status.UPDATED),
+                new EventReviewResultDTO(666L, EventReviewResultDTO.Status.NOT_FOUND)));
+
+        // WHEN A GOOD REQUEST IS RECEIVED
+        mvc.perform(MockMvcRequestBuilders
+                        .put(URL + "reviews")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reviews)))
+                // THEN THE RETURNED STATUS IS 200
+                .andExpect(status().isOk())
+                // THEN THE RESULT OF EACH REVIEW IS RETURNED
+                .andExpect(jsonPath("$[0].status", is("UPDATED")))
+                .andExpect(jsonPath("$[1].id", is(666)))
+                .andExpect(jsonPath("$[1].status", is("NOT_FOUND")));
+    }
+
     // ================================
     // BAD REQUEST TEST CASES
     // ================================
@@ -127,7 +429,7 @@ class EventControllerTest {
         // GIVEN REQUESTED DATA IS NOT IN DB
         long nonExistentEventId = 666L;
         doThrow(new ResourceNotFoundException("Event with id " + nonExistentEventId + " does not exist"))
-                .when(eventService).updateEvent(eq(nonExistentEventId), any(Event.class));
+                .when(eventService).updateEvent(eq(nonExistentEventId), any(Event.class), isNull());
         String expectedJson = TestFileLoader.getFileContent(REQUEST_BODY_UPDATE_EVENT);
         assert expectedJson != null;
 
@@ -147,6 +449,52 @@ class EventControllerTest {
                         is("not_found")));
     }
 
+    @Test
+    @DisplayName("[PRECONDITION_FAILED] Event update with a stale ETag")
+    void whenUpdateEventWithStaleEtagThenPreconditionFailedResponse() throws Exception {
+        // GIVEN THE EVENT WAS MODIFIED SINCE VERSION 3
+        long eventId = 1000L;
+        doThrow(new PreconditionFailedException("Event 1000 is at version 4"))
+                .when(eventService).updateEvent(eq(eventId), any(Event.class), eq(3L));
+        String requestBody = TestFileLoader.getFileContent(REQUEST_BODY_UPDATE_EVENT);
+        assert requestBody != null;
+
+        // WHEN A REQUEST WITH THE STALE ETAG IS RECEIVED
+        mvc.perform(MockMvcRequestBuilders
+                        .put(URL + eventId)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                // THEN THE RETURNED STATUS IS 412
+                .andExpect(status().isPreconditionFailed())
+                // THEN THE EXPECTED STRING BODY IS RETURNED
+                .andExpect(jsonPath("$.code",
+                        is("precondition_failed")));
+    }
+
+    @Test
+    @DisplayName("[PRECONDITION_FAILED] Event update with a weak ETag")
+    void whenUpdateEventWithWeakEtagThenPreconditionFailedResponse() throws Exception {
+        // GIVEN AN EVENT
+        long eventId = 1000L;
+        String requestBody = TestFileLoader.getFileContent(REQUEST_BODY_UPDATE_EVENT);
+        assert requestBody != null;
+
+        // WHEN A REQUEST WITH A WEAK ETAG IS RECEIVED
+        mvc.perform(MockMvcRequestBuilders
+                        .put(URL + eventId)
+                        .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                // THEN THE RETURNED STATUS IS 412
+                .andExpect(status().isPreconditionFailed())
+                // THEN THE EXPECTED STRING BODY IS RETURNED
+                .andExpect(jsonPath("$.code",
+                        is("precondition_failed")));
+        // THEN THE EVENT IS NOT UPDATED
+        verify(eventService, never()).updateEvent(eq(eventId), any(Event.class), any());
+    }
+
     @Test
     @DisplayName("[NOT_FOUND] Event not found for deletion")
     void whenDeleteNonExistentEventThenNotFoundResponse() throws Exception {
@@ -170,6 +518,73 @@ class EventControllerTest {
                         is("not_found")));
     }
 
+    @Test
+    @DisplayName("Requests are timed per method, route pattern and status")
+    void whenRequestThenRecordRouteLatency() throws Exception {
+        // GIVEN REQUESTED DATA IS NOT IN DB
+        String timer = "cdp_http_server_requests_seconds{method=\"DELETE\",uri=\"/api/events/{id}\",status=\"404\"}";
+        long recorded = recordedCount(timer);
+        doThrow(new ResourceNotFoundException("Event with id 667 does not exist")).when(eventService).delete(667L);
+
+        // WHEN A REQUEST IS RECEIVED
+        mvc.perform(MockMvcRequestBuilders.delete(URL + 667L))
+                .andExpect(status().isNotFound());
+
+        // THEN ITS LATENCY IS RECORDED UNDER ITS ROUTE PATTERN, NOT ITS PATH
+        assertEquals(recorded + 1, recordedCount(timer));
+        assertTrue(metricsRegistry.summaries().containsKey(
+                "cdp_http_server_sql_statements{method=\"DELETE\",uri=\"/api/events/{id}\"}"));
+    }
+
+    @Test
+    @DisplayName("[BAD_REQUEST] Event access with unknown view")
+    void whenFindEventsWithUnknownViewThenBadRequestResponse() throws Exception {
+        // WHEN A BAD REQUEST IS RECEIVED
+        mvc.perform(MockMvcRequestBuilders
+                        .get(URL)
+                        .param("view", "members")
+                        .accept(MediaType.APPLICATION_JSON))
+                // THEN THE RETURNED STATUS IS 400
+                .andExpect(status().isBadRequest())
+                // THEN THE EXPECTED STRING BODY IS RETURNED
+                .andExpect(jsonPath("$.code",
+                        is("invalid_request")));
+    }
+
+    @Test
+    @DisplayName("[BAD_REQUEST] Search combining a limit with a page")
+    void whenFindEventsWithQueryLimitAndSizeThenBadRequestResponse() throws Exception {
+        // WHEN A BAD REQUEST IS RECEIVED
+        mvc.perform(MockMvcRequestBuilders
+                        .get(URL + "search/Wa")
+                        .param("limit", "1")
+                        .param("size", "10")
+                        .accept(MediaType.APPLICATION_JSON))
+                // THEN THE RETURNED STATUS IS 400
+                .andExpect(status().isBadRequest())
+                // THEN THE EXPECTED STRING BODY IS RETURNED
+                .andExpect(jsonPath("$.code",
+                        is("invalid_request")));
+    }
+
+    @Test
+    @DisplayName("[BAD_REQUEST] Event access with invalid cursor")
+    void whenFindEventsWithInvalidCursorThenBadRequestResponse() throws Exception {
+        // GIVEN THE CURSOR WAS NOT ISSUED BY THE API
+        when(eventService.getEvents("invalid", null, EventProjection.FULL)).thenThrow(new InvalidCursorException("Invalid cursor: invalid"));
+
+        // WHEN A BAD REQUEST IS RECEIVED
+        mvc.perform(MockMvcRequestBuilders
+                        .get(URL)
+                        .param("cursor", "invalid")
+                        .accept(MediaType.APPLICATION_JSON))
+                // THEN THE RETURNED STATUS IS 400
+                .andExpect(status().isBadRequest())
+                // THEN THE EXPECTED STRING BODY IS RETURNED
+                .andExpect(jsonPath("$.code",
+                        is("invalid_cursor")));
+    }
+
     @Test
     @DisplayName("[BAD_REQUEST] Event update with invalid request body")
     void whenUpdateEventWithInvalidRequestBodyThenBadRequestResponse() throws Exception {
@@ -193,5 +608,9 @@ class EventControllerTest {
                 .andExpect(jsonPath("$.code",
                         is("invalid_body_format")));
     }
-}
 
+    private long recordedCount(String histogram) {
+        MetricsRegistry.HistogramSummary summary = metricsRegistry.summaries().get(histogram);
+        return summary == null ? 0 : summary.count();
+    }
+}
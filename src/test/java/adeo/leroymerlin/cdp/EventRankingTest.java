@@ -0,0 +1,50 @@
+package adeo.leroymerlin.cdp;
+
+import adeo.leroymerlin.cdp.dto.EventDTO;
+import adeo.leroymerlin.cdp.search.EventRanking;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EventRankingTest {
+
+    private static final List<EventDTO> EVENTS = List.of(
+            event(1000L, 8),
+            event(1001L, 20),
+            event(1002L, 8),
+            event(1003L, 3),
+            event(1004L, 20));
+
+    @Test
+    @DisplayName("Most relevant events come first, ties ordered by id")
+    void whenTopThenMostRelevantFirstAndTiesById() {
+        // WHEN
+        List<EventDTO> topEvents = EventRanking.top(EVENTS, 3);
+
+        // THEN
+        assertEquals(List.of(1001L, 1004L, 1000L), ids(topEvents));
+    }
+
+    @Test
+    @DisplayName("Limit above the number of events returns them all ranked, like a full ranking")
+    void whenTopWithLimitAboveSizeThenRankAllEvents() {
+        // WHEN
+        List<EventDTO> topEvents = EventRanking.top(EVENTS, EVENTS.size() + 10);
+
+        // THEN
+        assertEquals(List.of(1001L, 1004L, 1000L, 1002L, 1003L), ids(topEvents));
+        assertEquals(ids(EventRanking.rank(EVENTS)), ids(topEvents));
+        assertEquals(List.of(), EventRanking.top(List.of(), 3));
+    }
+
+    private static EventDTO event(Long id, int relevance) {
+        return new EventDTO(id, "Event " + id, null, null, false, relevance);
+    }
+
+    private static List<Long> ids(List<EventDTO> events) {
+        return events.stream().map(EventDTO::getId).toList();
+    }
+}
@@ -0,0 +1,341 @@
+package adeo.leroymerlin.cdp;
+
+import adeo.leroymerlin.cdp.config.DeletionProperties;
+import adeo.leroymerlin.cdp.config.SeedProperties;
+import adeo.leroymerlin.cdp.dto.EventDTO;
+import adeo.leroymerlin.cdp.dto.EventReviewDTO;
+import adeo.leroymerlin.cdp.entity.Event;
+import adeo.leroymerlin.cdp.mapper.DtoMapper;
+import adeo.leroymerlin.cdp.metrics.InstrumentedDataSource;
+import adeo.leroymerlin.cdp.metrics.MetricsRegistry;
+import adeo.leroymerlin.cdp.readmodel.BandView;
+import adeo.leroymerlin.cdp.readmodel.EventView;
+import adeo.leroymerlin.cdp.repository.EventBandRow;
+import adeo.leroymerlin.cdp.repository.EventJdbcRepository;
+import adeo.leroymerlin.cdp.repository.EventRating;
+import adeo.leroymerlin.cdp.repository.EventRepository;
+import adeo.leroymerlin.cdp.repository.EventSummaryView;
+import adeo.leroymerlin.cdp.repository.NameMatchRow;
+import adeo.leroymerlin.cdp.repository.SeedJdbcRepository;
+import adeo.leroymerlin.cdp.search.SqlEventSearchEngine;
+import adeo.leroymerlin.cdp.service.CsvSeedImporter;
+import adeo.leroymerlin.cdp.util.TestFileLoader;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn"})
+class EventRepositoryTest {
+
+    private static final String FILTERED_EVENTS_EXAMPLE = "service/filtered-events-example.json";
+    private static final DeletionProperties HARD_DELETION = new DeletionProperties(DeletionProperties.Mode.HARD, 500, Duration.ZERO);
+    private static final DeletionProperties SOFT_DELETION = new DeletionProperties(DeletionProperties.Mode.SOFT, 500, Duration.ZERO);
+
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        testEntityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Whole event graph is loaded with a single statement")
+    void whenFindAllWithBandsAndMembersThenSingleStatement() {
+        // WHEN
+        List<Event> events = eventRepository.findAllWithBandsAndMembers();
+
+        // THEN
+        assertEquals(5, events.size());
+        assertEquals(36, countMembers(events));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Event graphs selected by id are loaded with a single statement")
+    void whenFindAllWithBandsAndMembersByIdInThenSingleStatement() {
+        // WHEN
+        List<Event> events = eventRepository.findAllWithBandsAndMembersByIdIn(Set.of(1000L, 1004L));
+
+        // THEN
+        assertEquals(List.of(1000L, 1004L), events.stream().map(Event::getId).toList());
+        assertEquals(23, countMembers(events));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Projections select the summaries and the band names without loading any member")
+    void whenFindProjectionsThenSelectOnlyRequestedColumns() {
+        // WHEN
+        List<EventSummaryView> summaries = eventRepository.findSummariesByIdIn(List.of(1004L, 1000L));
+        List<EventBandRow> bands = eventRepository.findBandsByEventIdIn(List.of(1003L, 1004L));
+
+        // THEN
+        assertEquals(List.of(1000L, 1004L), summaries.stream().map(EventSummaryView::id).toList());
+        assertEquals("Motocultor", summaries.get(1).title());
+        assertEquals(List.of(new EventBandRow(1003L, 1000L, "Pink Floyd"), new EventBandRow(1004L, 1007L, "Deep Purple"),
+                new EventBandRow(1004L, 1008L, "Sum41"), new EventBandRow(1004L, 1009L, "Off Spring")), bands);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("Page ids are selected by keyset on the event id")
+    void whenFindIdsAfterThenReturnFollowingIds() {
+        // WHEN
+        List<Long> ids = eventRepository.findIdsAfter(1001L, Limit.of(2));
+
+        // THEN
+        assertEquals(List.of(1002L, 1003L), ids);
+    }
+
+    @Test
+    @DisplayName("Catalogue views share a single view per band across the events it plays at")
+    void whenMapCatalogueThenBandViewsAreShared() {
+        // GIVEN
+        List<Event> events = eventRepository.findAllWithBandsAndMembers();
+
+        // WHEN
+        List<EventView> views = DtoMapper.toEventViews(events);
+
+        // THEN
+        assertEquals(events.stream().map(DtoMapper::toEventView).toList(), views);
+        List<BandView> occurrences = views.stream()
+                .flatMap(view -> view.bands().stream())
+                .filter(band -> band.id().equals(1000L))
+                .toList();
+        assertEquals(2, occurrences.size());
+        assertSame(occurrences.get(0), occurrences.get(1));
+    }
+
+    @Test
+    @DisplayName("Streamed events are assembled like the loaded event graphs")
+    void whenStreamEventsThenReturnWholeCatalogue() {
+        // GIVEN
+        EventJdbcRepository eventJdbcRepository = new EventJdbcRepository(dataSource, HARD_DELETION);
+        List<EventView> expectedEvents = eventRepository.findAllWithBandsAndMembers().stream()
+                .map(DtoMapper::toEventView)
+                .toList();
+
+        // WHEN
+        List<EventView> streamedEvents = new ArrayList<>();
+        eventJdbcRepository.streamEvents(streamedEvents::add);
+
+        // THEN
+        assertEquals(expectedEvents, streamedEvents);
+    }
+
+    @Test
+    @DisplayName("Reviews are applied as a JDBC batch reporting the updated rows of each review")
+    void whenUpdateReviewsThenReturnUpdateCounts() {
+        // GIVEN
+        EventJdbcRepository eventJdbcRepository = new EventJdbcRepository(dataSource, HARD_DELETION);
+
+        // WHEN
+        int[] updateCounts = eventJdbcRepository.updateReviews(List.of(
+                new EventReviewDTO(1000L, 4, "Great"),
+                new EventReviewDTO(666L, 1, "Unknown")));
+
+        // THEN
+        assertArrayEquals(new int[]{1, 0}, updateCounts);
+        Event event = eventRepository.findById(1000L).orElseThrow();
+        assertEquals(4, event.getNbStars());
+        assertEquals("Great", event.getComment());
+    }
+
+    @Test
+    @DisplayName("Reviews of tombstoned events are reported as not updated")
+    void whenUpdateReviewOfSoftDeletedEventThenNotUpdated() {
+        // GIVEN
+        EventJdbcRepository eventJdbcRepository = new EventJdbcRepository(dataSource, SOFT_DELETION);
+        eventJdbcRepository.deleteEvents(List.of(1000L));
+
+        // WHEN
+        int[] updateCounts = eventJdbcRepository.updateReviews(List.of(new EventReviewDTO(1000L, 4, "Great")));
+
+        // THEN
+        assertArrayEquals(new int[]{0}, updateCounts);
+        assertEquals(0L, new JdbcTemplate(dataSource).queryForObject("select version from event where id = 1000", Long.class));
+    }
+
+    @Test
+    @DisplayName("Ratings are added atomically only to the expected version")
+    void whenAddRatingThenIncrementAggregatesOfExpectedVersion() {
+        // GIVEN
+        EventJdbcRepository eventJdbcRepository = new EventJdbcRepository(dataSource, HARD_DELETION);
+
+        // WHEN
+        int firstRating = eventJdbcRepository.addRating(1000L, 4, 1, 0L);
+        int staleRating = eventJdbcRepository.addRating(1000L, 2, 1, 0L);
+        int unconditionalRating = eventJdbcRepository.addRating(1000L, 5, 1, null);
+
+        // THEN
+        assertEquals(1, firstRating);
+        assertEquals(0, staleRating);
+        assertEquals(1, unconditionalRating);
+        assertEquals(Optional.of(new EventRating(1000L, 9, 2, 2L)), eventJdbcRepository.findRating(1000L));
+    }
+
+    @Test
+    @DisplayName("Events matching the criteria are deleted with their join rows by a single statement")
+    void whenHardDeleteEventsThenDeleteRowsAndJoinRows() {
+        // GIVEN
+        EventJdbcRepository eventJdbcRepository = new EventJdbcRepository(dataSource, HARD_DELETION);
+
+        // WHEN
+        List<Long> ids = eventJdbcRepository.deleteMatching(null, "FEST");
+
+        // THEN
+        assertEquals(List.of(1001L, 1003L), ids);
+        assertEquals(List.of(1000L, 1002L, 1004L), eventRepository.findAll().stream().map(Event::getId).sorted().toList());
+        assertEquals(0, countEventBands(ids));
+    }
+
+    @Test
+    @DisplayName("Tombstoned events are no longer read and are purged with their join rows")
+    void whenSoftDeleteEventsThenHideThenPurgeThem() {
+        // GIVEN
+        EventJdbcRepository eventJdbcRepository = new EventJdbcRepository(dataSource, SOFT_DELETION);
+
+        // WHEN
+        int deleted = eventJdbcRepository.deleteEvents(List.of(1000L));
+
+        // THEN
+        assertEquals(1, deleted);
+        assertTrue(eventRepository.findById(1000L).isEmpty());
+        assertEquals(4, eventRepository.findAllWithBandsAndMembers().size());
+        assertEquals(List.of(), eventJdbcRepository.deleteMatching(List.of(1000L), null));
+        assertEquals(5, countEventBands(List.of(1000L)));
+        assertEquals(1, eventJdbcRepository.purgeTombstoned(Instant.now().plusSeconds(60), 500));
+        assertEquals(0, countEventBands(List.of(1000L)));
+    }
+
+    @Test
+    @DisplayName("Title, band and member matches are filtered by the database with a single statement per query")
+    void whenFindNameMatchesThenReturnFlatRows() {
+        // WHEN
+        List<NameMatchRow> memberRows = eventRepository.findNameMatches("%gertrude%");
+        List<NameMatchRow> titleRows = eventRepository.findNameMatches("%motocultor%");
+
+        // THEN
+        assertEquals(List.of(
+                        new NameMatchRow(1000L, "GrasPop Metal Meeting", "img/1000.jpeg", 1000L, "Pink Floyd", "Queen Gertrude Hudson"),
+                        new NameMatchRow(1003L, "Download Festival", "img/1003.jpeg", 1000L, "Pink Floyd", "Queen Gertrude Hudson")),
+                memberRows);
+        assertEquals(7, titleRows.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("SQL search engine assembles the same result as the expected example")
+    void whenSqlSearchThenReturnFilteredEvents() {
+        // GIVEN
+        SqlEventSearchEngine sqlEventSearchEngine = new SqlEventSearchEngine(eventRepository, new MetricsRegistry());
+        List<EventDTO> expectedFilteredEvents = TestFileLoader.getListFromJsonFile(FILTERED_EVENTS_EXAMPLE, EventDTO.class);
+        assert expectedFilteredEvents != null;
+
+        // WHEN
+        List<EventDTO> filteredEvents = sqlEventSearchEngine.search("Wa");
+
+        // THEN
+        assertEquals(expectedFilteredEvents, filteredEvents);
+        assertTrue(sqlEventSearchEngine.search("%").isEmpty());
+    }
+
+    @Test
+    @DisplayName("CSV seed is bulk imported into an empty database only")
+    void whenImportSeedThenLoadSameCatalogueAsDataSql() {
+        // GIVEN
+        List<EventView> expectedEvents = eventRepository.findAllWithBandsAndMembers().stream()
+                .map(DtoMapper::toEventView)
+                .toList();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List.of("band_members", "event_bands", "event", "band", "member")
+                .forEach(table -> jdbcTemplate.update("delete from " + table));
+        testEntityManager.clear();
+        CsvSeedImporter csvSeedImporter = new CsvSeedImporter(new SeedJdbcRepository(dataSource),
+                new DefaultResourceLoader(), transactionManager, new SeedProperties("classpath:seed", 4));
+
+        // WHEN
+        long imported = csvSeedImporter.importSeed();
+        long importedAgain = csvSeedImporter.importSeed();
+
+        // THEN
+        assertEquals(5 + 10 + 30 + 11 + 30, imported);
+        assertEquals(0, importedAgain);
+        testEntityManager.clear();
+        assertEquals(expectedEvents, eventRepository.findAllWithBandsAndMembers().stream()
+                .map(DtoMapper::toEventView)
+                .toList());
+    }
+
+    @Test
+    @DisplayName("Statements and connection acquisitions of the instrumented data source are recorded")
+    void whenQueryThroughInstrumentedDataSourceThenRecordStatementsAndAcquisition() {
+        // GIVEN
+        MetricsRegistry metricsRegistry = new MetricsRegistry();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new InstrumentedDataSource(dataSource, metricsRegistry));
+
+        // WHEN
+        InstrumentedDataSource.startCounting();
+        Integer events = jdbcTemplate.queryForObject("select count(*) from event where id = ?", Integer.class, 1000L);
+        long threadStatements = InstrumentedDataSource.stopCounting();
+
+        // THEN
+        assertEquals(1, events);
+        assertEquals(1, threadStatements);
+        assertEquals(1, metricsRegistry.summaries().get("cdp_jdbc_connection_acquire_seconds").count());
+        assertTrue(metricsRegistry.scrape().contains("cdp_jdbc_statements_total 1\n"));
+    }
+
+    private int countEventBands(List<Long> eventIds) {
+        return new NamedParameterJdbcTemplate(dataSource).queryForObject(
+                "select count(*) from event_bands where event_id in (:ids)", Map.of("ids", eventIds), Integer.class);
+    }
+
+    private static long countMembers(List<Event> events) {
+        return events.stream()
+                .flatMap(event -> event.getBands().stream())
+                .mapToLong(band -> band.getMembers().size())
+                .sum();
+    }
+}
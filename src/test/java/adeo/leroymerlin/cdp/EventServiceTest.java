@@ -1,23 +1,64 @@
 package adeo.leroymerlin.cdp;
 
+import adeo.leroymerlin.cdp.cache.BoundedCacheManager;
+import adeo.leroymerlin.cdp.change.EventChange;
+import adeo.leroymerlin.cdp.config.CacheProperties;
+import adeo.leroymerlin.cdp.config.PaginationProperties;
+import adeo.leroymerlin.cdp.dto.BandDTO;
+import adeo.leroymerlin.cdp.dto.CursorPage;
 import adeo.leroymerlin.cdp.dto.EventDTO;
+import adeo.leroymerlin.cdp.dto.EventDeletionDTO;
+import adeo.leroymerlin.cdp.dto.EventReviewDTO;
+import adeo.leroymerlin.cdp.dto.EventReviewResultDTO;
+import adeo.leroymerlin.cdp.dto.MemberDTO;
 import adeo.leroymerlin.cdp.entity.Event;
+import adeo.leroymerlin.cdp.exception.InvalidCursorException;
+import adeo.leroymerlin.cdp.exception.InvalidRequestException;
+import adeo.leroymerlin.cdp.exception.PreconditionFailedException;
 import adeo.leroymerlin.cdp.exception.ResourceNotFoundException;
+import adeo.leroymerlin.cdp.metrics.MetricsRegistry;
+import adeo.leroymerlin.cdp.readmodel.BandSummaryView;
+import adeo.leroymerlin.cdp.readmodel.EventBandsView;
+import adeo.leroymerlin.cdp.readmodel.EventCatalog;
+import adeo.leroymerlin.cdp.readmodel.EventProjection;
+import adeo.leroymerlin.cdp.readmodel.EventReadModel;
+import adeo.leroymerlin.cdp.readmodel.EventView;
+import adeo.leroymerlin.cdp.repository.EventBandRow;
+import adeo.leroymerlin.cdp.repository.EventJdbcRepository;
+import adeo.leroymerlin.cdp.repository.EventRating;
 import adeo.leroymerlin.cdp.repository.EventRepository;
+import adeo.leroymerlin.cdp.repository.EventSummaryView;
+import adeo.leroymerlin.cdp.search.IndexedEventSearchEngine;
+import adeo.leroymerlin.cdp.search.NameIndex;
+import adeo.leroymerlin.cdp.search.NameSuggester;
+import adeo.leroymerlin.cdp.search.SearchResultCache;
+import adeo.leroymerlin.cdp.search.Suggestion;
 import adeo.leroymerlin.cdp.service.EventService;
+import adeo.leroymerlin.cdp.service.RatingBuffer;
 import adeo.leroymerlin.cdp.util.TestFileLoader;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 class EventServiceTest {
@@ -28,12 +69,41 @@ class EventServiceTest {
     @Mock
     private EventRepository eventRepository;
 
-    @InjectMocks
+    @Mock
+    private EventJdbcRepository eventJdbcRepository;
+
+    @Mock
+    private RatingBuffer ratingBuffer;
+
+    @Spy
+    private NameIndex nameIndex = new NameIndex();
+
+    private IndexedEventSearchEngine eventSearchEngine;
+
+    private EventReadModel eventReadModel;
+
+    private NameSuggester nameSuggester;
+
     private EventService eventService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        eventSearchEngine = new IndexedEventSearchEngine(eventRepository, nameIndex, new MetricsRegistry());
+        SearchResultCache searchResultCache = new SearchResultCache(new BoundedCacheManager(
+                new CacheProperties(new CacheProperties.Spec(1000, Duration.ZERO, Duration.ZERO), Map.of())));
+        eventReadModel = new EventReadModel(eventRepository, new ObjectMapper());
+        nameSuggester = new NameSuggester(eventReadModel);
+        // Outside a transaction, the changes are applied at once by the subscribers, in their order
+        ApplicationEventPublisher eventPublisher = event -> {
+            EventChange change = (EventChange) event;
+            eventReadModel.onChange(change);
+            nameSuggester.onChange(change);
+            eventSearchEngine.onChange(change);
+            searchResultCache.onChange(change);
+        };
+        eventService = new EventService(eventRepository, eventJdbcRepository, eventSearchEngine, searchResultCache,
+                eventReadModel, new PaginationProperties(20, 100), ratingBuffer, nameSuggester, eventPublisher);
     }
 
     // ================================
@@ -47,11 +117,57 @@ class EventServiceTest {
         List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
 
         // WHEN
-        when(eventRepository.findAll()).thenReturn(events);
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+
+        // THEN
+        assertEquals(5, eventService.getEvents().events().size());
+        assertSame(eventService.getEvents(), eventService.getEvents());
+        verify(eventRepository, times(1)).findAllWithBandsAndMembers();
+    }
+
+    @Test
+    @DisplayName("Successful access to a page of events with the names of their bands only")
+    void whenGetEventsPageWithBandsProjectionThenLoadNoMember() {
+        // GIVEN
+        when(eventRepository.findIdsAfter(Long.MIN_VALUE, Limit.of(3))).thenReturn(List.of(1001L, 1002L, 1003L));
+        when(eventRepository.findSummariesByIdIn(List.of(1001L, 1002L))).thenReturn(List.of(
+                new EventSummaryView(1001L, "Alcatraz Fest", "img/1001.jpeg", null, null, 0, 0),
+                new EventSummaryView(1002L, "Les Vieilles Charrues", "img/1002.jpeg", 4, "Great", 8, 2)));
+        when(eventRepository.findBandsByEventIdIn(List.of(1001L, 1002L))).thenReturn(List.of(
+                new EventBandRow(1001L, 1005L, "Megadeth")));
+
+        // WHEN
+        CursorPage<?> page = eventService.getEvents(null, 2, EventProjection.BANDS);
+
+        // THEN
+        assertEquals(List.of(
+                new EventBandsView(1001L, "Alcatraz Fest", "img/1001.jpeg", List.of(new BandSummaryView(1005L, "Megadeth")),
+                        null, null, 0, 0),
+                new EventBandsView(1002L, "Les Vieilles Charrues", "img/1002.jpeg", List.of(), 4, "Great", 8, 2)),
+                page.items());
+        assertEquals(CursorPage.encode(1002L), page.nextCursor());
+        verify(eventRepository, never()).findAllWithBandsAndMembersByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Successful access to the events page by page")
+    void whenGetEventsPageThenReturnEventsAfterCursor() {
+        // GIVEN
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        assert events != null;
+        when(eventRepository.findIdsAfter(Long.MIN_VALUE, Limit.of(3))).thenReturn(List.of(1000L, 1001L, 1002L));
+        when(eventRepository.findIdsAfter(1001L, Limit.of(3))).thenReturn(List.of(1002L, 1003L, 1004L));
+        when(eventRepository.findAllWithBandsAndMembersByIdIn(List.of(1000L, 1001L))).thenReturn(events.subList(0, 2));
+
+        // WHEN
+        CursorPage<EventView> firstPage = eventService.getEvents(null, 2);
+        eventService.getEvents(firstPage.nextCursor(), 2);
 
         // THEN
-        assertEquals(5, eventService.getEvents().size());
-        verify(eventRepository, times(1)).findAll();
+        assertEquals(List.of(1000L, 1001L), firstPage.items().stream().map(EventView::id).toList());
+        assertEquals(CursorPage.encode(1001L), firstPage.nextCursor());
+        verify(eventRepository, times(1)).findAllWithBandsAndMembersByIdIn(List.of(1002L, 1003L));
+        verify(eventRepository, never()).findAllWithBandsAndMembers();
     }
 
     @Test
@@ -61,11 +177,34 @@ class EventServiceTest {
         long eventId = 1L;
 
         // WHEN
-        when(eventRepository.existsById(eventId)).thenReturn(true);
+        when(eventJdbcRepository.deleteEvents(List.of(eventId))).thenReturn(1);
         eventService.delete(eventId);
 
         // THEN
-        verify(eventRepository, times(1)).deleteById(eventId);
+        verify(eventJdbcRepository, times(1)).deleteEvents(List.of(eventId));
+        verify(eventRepository, never()).findById(eventId);
+        verify(nameIndex, times(1)).removeEvent(eventId);
+    }
+
+    @Test
+    @DisplayName("Successful bulk deletion of the events matching the criteria")
+    void whenDeleteEventsThenDeleteMatchingEventsAtOnce() {
+        // GIVEN
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        EventDeletionDTO criteria = new EventDeletionDTO(null, "festival");
+        when(eventJdbcRepository.deleteMatching(null, "festival")).thenReturn(List.of(1001L, 1003L));
+        eventService.getEvents();
+
+        // WHEN
+        List<Long> deletedIds = eventService.deleteEvents(criteria);
+
+        // THEN
+        assertEquals(List.of(1001L, 1003L), deletedIds);
+        assertEquals(List.of(1000L, 1002L, 1004L), eventService.getEvents().events().stream().map(EventView::id).toList());
+        verify(eventJdbcRepository, times(1)).deleteMatching(null, "festival");
+        verify(nameIndex, times(1)).removeEvent(1001L);
+        verify(nameIndex, times(1)).removeEvent(1003L);
     }
 
     @Test
@@ -88,6 +227,150 @@ class EventServiceTest {
         verify(eventRepository, times(1)).save(existingEvent);
     }
 
+    @Test
+    @DisplayName("Successful rating of an event applied as an atomic increment")
+    void whenRateEventThenIncrementAggregatesAndUpdateSnapshot() {
+        // GIVEN
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        eventService.getEvents();
+        when(eventJdbcRepository.addRating(1000L, 4, 1, null)).thenReturn(1);
+        when(eventJdbcRepository.findRating(1000L)).thenReturn(Optional.of(new EventRating(1000L, 9, 2, 3L)));
+
+        // WHEN
+        EventRating rating = eventService.rate(1000L, 4, null);
+
+        // THEN
+        assertEquals(new EventRating(1000L, 9, 2, 3L), rating);
+        assertEquals(4, eventService.getEvents().find(1000L).starTotal());
+        assertEquals(1, eventService.getEvents().find(1000L).voteCount());
+        verify(eventRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Successful rating of an event buffered in write-behind mode and observed by the events snapshot at once")
+    void whenRateEventInWriteBehindModeThenBufferRatingAndUpdateSnapshot() {
+        // GIVEN
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        bufferRatings();
+
+        // WHEN
+        eventService.rate(1000L, 4, null);
+        EventRating rating = eventService.rate(1000L, 5, null);
+        EventCatalog beforeFlush = eventService.getEvents();
+        eventReadModel.applyFlushedRatings(eventReadModel.pendingRatings());
+
+        // THEN
+        assertEquals(new EventRating(1000L, 9, 2, null), rating);
+        assertEquals(9, beforeFlush.find(1000L).starTotal());
+        assertEquals(2, beforeFlush.find(1000L).voteCount());
+        assertEquals(9, eventService.getEvents().find(1000L).starTotal());
+        assertEquals(2, eventService.getEvents().find(1000L).voteCount());
+        assertEquals(0, eventReadModel.pendingRatingCount());
+        verify(ratingBuffer, times(1)).add(1000L, 4);
+        verify(ratingBuffer, times(1)).add(1000L, 5);
+        verify(eventJdbcRepository, never()).addRating(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Conditional rating of an event keeps the buffered ratings of the events snapshot")
+    void whenRateEventWithVersionInWriteBehindModeThenSnapshotKeepsBufferedRatings() {
+        // GIVEN
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        bufferRatings();
+        eventService.rate(1000L, 4, null);
+        when(eventJdbcRepository.addRating(1000L, 5, 1, 0L)).thenReturn(1);
+        // The database does not have the buffered rating yet
+        when(eventJdbcRepository.findRating(1000L)).thenReturn(Optional.of(new EventRating(1000L, 5, 1, 1L)));
+
+        // WHEN
+        eventService.rate(1000L, 5, 0L);
+        EventCatalog beforeFlush = eventService.getEvents();
+        eventReadModel.applyFlushedRatings(eventReadModel.pendingRatings());
+
+        // THEN
+        assertEquals(9, beforeFlush.find(1000L).starTotal());
+        assertEquals(9, eventService.getEvents().find(1000L).starTotal());
+        assertEquals(2, eventService.getEvents().find(1000L).voteCount());
+    }
+
+    @Test
+    @DisplayName("Successful update of an event reflected in the events snapshot")
+    void whenUpdateEventThenEventsSnapshotIsUpdated() {
+        // GIVEN
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        when(eventRepository.findById(1000L)).thenReturn(Optional.of(events.getFirst()));
+        EventCatalog before = eventService.getEvents();
+        Event updatedEvent = new Event();
+        updatedEvent.setComment("Updated Comment");
+        updatedEvent.setNbStars(4);
+
+        // WHEN
+        eventService.updateEvent(1000L, updatedEvent);
+
+        // THEN
+        EventCatalog after = eventService.getEvents();
+        assertEquals(4, after.find(1000L).nbStars());
+        assertEquals("Updated Comment", after.find(1000L).comment());
+        assertSame(before.find(1001L), after.find(1001L));
+        assertNotEquals(before.etag(), after.etag());
+    }
+
+    @Test
+    @DisplayName("Successful update of an event reflected in the projections of the events snapshot")
+    void whenUpdateEventThenProjectedSnapshotIsUpdated() {
+        // GIVEN
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        when(eventRepository.findById(1000L)).thenReturn(Optional.of(events.getFirst()));
+        EventCatalog before = eventService.getEvents();
+        before.json(EventProjection.SUMMARY);
+        Event updatedEvent = new Event();
+        updatedEvent.setComment("Updated Comment");
+        updatedEvent.setNbStars(4);
+
+        // WHEN
+        eventService.updateEvent(1000L, updatedEvent);
+
+        // THEN
+        EventCatalog after = eventService.getEvents();
+        EventCatalog rebuilt = EventCatalog.of(after.events(), new ObjectMapper().writer());
+        assertArrayEquals(rebuilt.json(EventProjection.SUMMARY), after.json(EventProjection.SUMMARY));
+        assertEquals(rebuilt.etag(EventProjection.SUMMARY), after.etag(EventProjection.SUMMARY));
+        assertNotEquals(before.etag(EventProjection.SUMMARY), after.etag(EventProjection.SUMMARY));
+    }
+
+    @Test
+    @DisplayName("Successful batch of reviews reflected in the events snapshot at once")
+    void whenUpdateReviewsThenApplyBatchAndReportEachReview() {
+        // GIVEN
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        EventCatalog before = eventService.getEvents();
+        List<EventReviewDTO> reviews = List.of(
+                new EventReviewDTO(1000L, 4, "Great"),
+                new EventReviewDTO(666L, 1, "Unknown"),
+                new EventReviewDTO(1003L, 2, "Too loud"));
+        when(eventJdbcRepository.updateReviews(reviews)).thenReturn(new int[]{1, 0, 1});
+
+        // WHEN
+        List<EventReviewResultDTO> results = eventService.updateReviews(reviews);
+
+        // THEN
+        assertEquals(List.of(
+                new EventReviewResultDTO(1000L, EventReviewResultDTO.Status.UPDATED),
+                new EventReviewResultDTO(666L, EventReviewResultDTO.Status.NOT_FOUND),
+                new EventReviewResultDTO(1003L, EventReviewResultDTO.Status.UPDATED)), results);
+        EventCatalog after = eventService.getEvents();
+        assertEquals(4, after.find(1000L).nbStars());
+        assertEquals("Too loud", after.find(1003L).comment());
+        assertSame(before.find(1001L), after.find(1001L));
+        verify(eventRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("Successful filtering of events")
     void whenGetFilteredEventsThenReturnFilteredEvents() {
@@ -98,13 +381,200 @@ class EventServiceTest {
         assert expectedFilteredEvents != null;
 
         // WHEN
-        when(eventRepository.findAll()).thenReturn(events);
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        when(eventRepository.findAllWithBandsAndMembersByIdIn(Set.of(1000L))).thenReturn(List.of(events.getFirst()));
+        eventSearchEngine.buildIndex();
 
         // THEN
         List<EventDTO> filteredEvents = eventService.getFilteredEvents(query);
         assertEquals(1, filteredEvents.size());
         assertEquals(expectedFilteredEvents.getFirst(), filteredEvents.getFirst());
-        verify(eventRepository, times(1)).findAll();
+        verify(eventRepository, times(1)).findAllWithBandsAndMembersByIdIn(Set.of(1000L));
+    }
+
+    @Test
+    @DisplayName("Successful filtering of events page by page")
+    void whenGetFilteredEventsPageThenReturnFilteredEventsAfterCursor() {
+        // GIVEN
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        assert events != null;
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        when(eventRepository.findAllWithBandsAndMembersByIdIn(Set.of(1000L, 1003L))).thenReturn(List.of(events.get(0), events.get(3)));
+        eventSearchEngine.buildIndex();
+
+        // WHEN
+        CursorPage<EventDTO> firstPage = eventService.getFilteredEvents("Gertrude", null, 1);
+        CursorPage<EventDTO> lastPage = eventService.getFilteredEvents("Gertrude", firstPage.nextCursor(), 1);
+        CursorPage<EventDTO> pageAfterMissingId = eventService.getFilteredEvents("Gertrude", CursorPage.encode(1001L), 1);
+        CursorPage<EventDTO> pageAfterLastId = eventService.getFilteredEvents("Gertrude", CursorPage.encode(1003L), 1);
+
+        // THEN
+        assertEquals(1000L, firstPage.items().getFirst().getId());
+        assertEquals(1003L, lastPage.items().getFirst().getId());
+        assertNull(lastPage.nextCursor());
+        assertEquals(List.of(1003L), pageAfterMissingId.items().stream().map(EventDTO::getId).toList());
+        assertTrue(pageAfterLastId.items().isEmpty());
+        verify(eventRepository, times(1)).findAllWithBandsAndMembersByIdIn(Set.of(1000L, 1003L));
+    }
+
+    @Test
+    @DisplayName("Successful filtering of the most relevant events up to the limit")
+    void whenGetFilteredEventsWithLimitThenReturnMostRelevantEvents() {
+        // GIVEN
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        assert events != null;
+        // The title of 1004 also matches, ranking it above 1002 where only a member matches
+        events.get(4).setTitle("Queen Anniversary");
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        when(eventRepository.findAllWithBandsAndMembersByIdIn(Set.of(1000L, 1002L, 1004L)))
+                .thenReturn(List.of(events.get(0), events.get(2), events.get(4)));
+        eventSearchEngine.buildIndex();
+
+        // WHEN
+        List<EventDTO> topEvents = eventService.getFilteredEvents("Queen A", 2);
+        List<EventDTO> rankedEvents = eventService.getFilteredEvents("Queen A");
+        CursorPage<EventDTO> page = eventService.getFilteredEvents("Queen A", null, 3);
+
+        // THEN
+        assertEquals(List.of(1000L, 1004L), topEvents.stream().map(EventDTO::getId).toList());
+        assertEquals(List.of(1000L, 1004L, 1002L), rankedEvents.stream().map(EventDTO::getId).toList());
+        assertSame(rankedEvents, eventService.getFilteredEvents("Queen A"));
+        assertEquals(List.of(1000L, 1002L, 1004L), page.items().stream().map(EventDTO::getId).toList());
+        assertThrows(InvalidRequestException.class, () -> eventService.getFilteredEvents("Queen A", 0));
+        verify(eventRepository, times(1)).findAllWithBandsAndMembersByIdIn(Set.of(1000L, 1002L, 1004L));
+    }
+
+    @Test
+    @DisplayName("Successful filtering of events on a band name keeping the whole band")
+    void whenGetFilteredEventsOnBandNameThenReturnWholeBand() {
+        // GIVEN
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        assert events != null;
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        when(eventRepository.findAllWithBandsAndMembersByIdIn(Set.of(1000L, 1003L))).thenReturn(List.of(events.get(0), events.get(3)));
+        eventSearchEngine.buildIndex();
+
+        // WHEN
+        List<EventDTO> filteredEvents = eventService.getFilteredEvents("Pink Floyd");
+
+        // THEN
+        assertEquals(List.of("GrasPop Metal Meeting [1]", "Download Festival [1]"), filteredEvents.stream().map(EventDTO::getTitle).toList());
+        BandDTO band = filteredEvents.getFirst().getBands().iterator().next();
+        assertEquals("Pink Floyd [6]", band.getName());
+        assertTrue(band.isMatched());
+        assertTrue(band.getMembers().stream().noneMatch(MemberDTO::isMatched));
+    }
+
+    @Test
+    @DisplayName("Successful filtering of events leaving the loaded entities untouched")
+    void whenGetFilteredEventsThenEntitiesAreNotModified() {
+        // GIVEN
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+
+        // WHEN
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        when(eventRepository.findAllWithBandsAndMembersByIdIn(Set.of(1000L))).thenReturn(List.of(events.getFirst()));
+        eventSearchEngine.buildIndex();
+        eventService.getFilteredEvents("Wa");
+
+        // THEN
+        Event searchedEvent = events.getFirst();
+        assertEquals("GrasPop Metal Meeting", searchedEvent.getTitle());
+        assertEquals(5, searchedEvent.getBands().size());
+        assertEquals(16, searchedEvent.getBands().stream().mapToInt(band -> band.getMembers().size()).sum());
+    }
+
+    @Test
+    @DisplayName("Successful filtering of events without any match")
+    void whenGetFilteredEventsWithoutMatchThenReturnNoEvent() {
+        // GIVEN
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+
+        // WHEN
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        eventSearchEngine.buildIndex();
+
+        // THEN
+        assertTrue(eventService.getFilteredEvents("Zz").isEmpty());
+        verify(eventRepository, never()).findAllWithBandsAndMembersByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Successful filtering of events served from the cache for the same normalized query")
+    void whenGetFilteredEventsTwiceThenSearchOnce() {
+        // GIVEN
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+
+        // WHEN
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        when(eventRepository.findAllWithBandsAndMembersByIdIn(Set.of(1000L))).thenReturn(List.of(events.getFirst()));
+        eventSearchEngine.buildIndex();
+        List<EventDTO> firstResult = eventService.getFilteredEvents("Wa");
+        List<EventDTO> secondResult = eventService.getFilteredEvents(" wA ");
+
+        // THEN
+        assertEquals(firstResult, secondResult);
+        verify(eventRepository, times(1)).findAllWithBandsAndMembersByIdIn(Set.of(1000L));
+    }
+
+    @Test
+    @DisplayName("Successful deletion of an event evicting only the cached results containing it")
+    void whenDeleteEventThenEvictOnlyCachedResultsContainingIt() {
+        // GIVEN
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        when(eventRepository.findAllWithBandsAndMembersByIdIn(Set.of(1000L))).thenReturn(List.of(events.getFirst()));
+        when(eventRepository.findAllWithBandsAndMembersByIdIn(Set.of(1004L))).thenReturn(List.of(events.getLast()));
+        when(eventJdbcRepository.deleteEvents(List.of(1000L))).thenReturn(1);
+        eventSearchEngine.buildIndex();
+        eventService.getFilteredEvents("Wa");
+        eventService.getFilteredEvents("Yasmine");
+
+        // WHEN
+        eventService.delete(1000L);
+
+        // THEN
+        assertTrue(eventService.getFilteredEvents("Wa").isEmpty());
+        assertEquals(1, eventService.getFilteredEvents("Yasmine").size());
+        verify(eventRepository, times(1)).findAllWithBandsAndMembersByIdIn(Set.of(1004L));
+    }
+
+    @Test
+    @DisplayName("Successful reviews of events keeping the cached results containing them")
+    void whenUpdateReviewsThenKeepCachedResults() {
+        // GIVEN
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        when(eventRepository.findAllWithBandsAndMembersByIdIn(Set.of(1004L))).thenReturn(List.of(events.getLast()));
+        when(eventJdbcRepository.updateReviews(any())).thenReturn(new int[]{1});
+        eventSearchEngine.buildIndex();
+        List<EventDTO> before = eventService.getFilteredEvents("Yasmine");
+
+        // WHEN
+        eventService.updateReviews(List.of(new EventReviewDTO(1004L, 5, "Great")));
+
+        // THEN
+        assertSame(before, eventService.getFilteredEvents("Yasmine"));
+        verify(eventRepository, times(1)).findAllWithBandsAndMembersByIdIn(Set.of(1004L));
+    }
+
+    @Test
+    @DisplayName("Successful suggestions no longer counting a deleted event")
+    void whenDeleteEventThenSuggestionsAreUpdated() {
+        // GIVEN
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        when(eventRepository.findAllWithBandsAndMembers()).thenReturn(events);
+        when(eventJdbcRepository.deleteEvents(List.of(1000L))).thenReturn(1);
+        nameSuggester.rebuild();
+        List<Suggestion> before = eventService.suggest("pink", null);
+
+        // WHEN
+        eventService.delete(1000L);
+
+        // THEN
+        assertEquals(List.of(new Suggestion("Pink Floyd", Suggestion.Type.BAND, 2)), before);
+        assertEquals(List.of(new Suggestion("Pink Floyd", Suggestion.Type.BAND, 1)), eventService.suggest("pink", null));
+        assertTrue(eventService.suggest("wal", null).isEmpty());
     }
 
     // ================================
@@ -126,6 +596,55 @@ class EventServiceTest {
         verify(eventRepository, times(1)).findById(eventId);
     }
 
+    @Test
+    @DisplayName("Failed access to the events with an invalid cursor")
+    void whenGetEventsWithInvalidCursorThenThrowException() {
+        // THEN
+        assertThrows(InvalidCursorException.class, () -> eventService.getEvents("not a cursor", 2));
+        verify(eventRepository, never()).findIdsAfter(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Failed update of an event modified since the expected version")
+    void whenUpdateEventWithStaleVersionThenThrowException() {
+        // GIVEN
+        Event existingEvent = new Event();
+        existingEvent.setVersion(4L);
+        when(eventRepository.findById(1000L)).thenReturn(Optional.of(existingEvent));
+
+        // THEN
+        assertThrows(PreconditionFailedException.class, () -> eventService.updateEvent(1000L, new Event(), 3L));
+        verify(eventRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Failed rating of an event modified since the expected version")
+    void whenRateEventWithStaleVersionThenThrowException() {
+        // GIVEN
+        when(eventJdbcRepository.addRating(1000L, 4, 1, 3L)).thenReturn(0);
+        when(eventJdbcRepository.findRating(1000L)).thenReturn(Optional.of(new EventRating(1000L, 9, 2, 4L)));
+
+        // THEN
+        assertThrows(PreconditionFailedException.class, () -> eventService.rate(1000L, 4, 3L));
+        assertThrows(InvalidRequestException.class, () -> eventService.rate(1000L, 6, null));
+    }
+
+    @Test
+    @DisplayName("Failed suggestions with a limit out of range")
+    void whenSuggestWithLimitOutOfRangeThenThrowException() {
+        // THEN
+        assertThrows(InvalidRequestException.class, () -> eventService.suggest("pink", 0));
+        assertThrows(InvalidRequestException.class, () -> eventService.suggest("pink", NameSuggester.MAX_SUGGESTIONS + 1));
+    }
+
+    @Test
+    @DisplayName("Failed bulk deletion without any criterion")
+    void whenDeleteEventsWithoutCriteriaThenThrowException() {
+        // THEN
+        assertThrows(InvalidRequestException.class, () -> eventService.deleteEvents(new EventDeletionDTO()));
+        verify(eventJdbcRepository, never()).deleteMatching(any(), any());
+    }
+
     @Test
     @DisplayName("Failed deletion of an event")
     void whenDeleteEventNotFoundThenThrowException() {
@@ -133,10 +652,20 @@ class EventServiceTest {
         long eventId = 1L;
 
         // WHEN
-        when(eventRepository.existsById(eventId)).thenReturn(false);
+        when(eventJdbcRepository.deleteEvents(List.of(eventId))).thenReturn(0);
 
         // THEN
         assertThrows(ResourceNotFoundException.class, () -> eventService.delete(eventId));
-        verify(eventRepository, times(1)).existsById(eventId);
+        verify(eventJdbcRepository, times(1)).deleteEvents(List.of(eventId));
+        verify(nameIndex, never()).removeEvent(eventId);
+    }
+
+    /**
+     * Makes the mocked buffer add the ratings to the pending ones of the read model, as in write-behind mode.
+     */
+    private void bufferRatings() {
+        when(ratingBuffer.isEnabled()).thenReturn(true);
+        when(ratingBuffer.add(any(), anyLong()))
+                .thenAnswer(invocation -> eventReadModel.addRating(invocation.getArgument(0), invocation.getArgument(1), 1));
     }
 }
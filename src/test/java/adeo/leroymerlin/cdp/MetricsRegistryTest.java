@@ -0,0 +1,92 @@
+package adeo.leroymerlin.cdp;
+
+import adeo.leroymerlin.cdp.metrics.Histogram;
+import adeo.leroymerlin.cdp.metrics.MetricsRegistry;
+import adeo.leroymerlin.cdp.metrics.RequestMetricsFilter;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsRegistryTest {
+
+    private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+    @Test
+    @DisplayName("Percentiles are estimated within the bucket holding their rank")
+    void whenRecordLatenciesThenEstimatePercentiles() {
+        // GIVEN
+        Histogram timer = metricsRegistry.timer("test_seconds", "stage", "load");
+        for (int i = 0; i < 99; i++) {
+            timer.record(TimeUnit.MICROSECONDS.toNanos(200));
+        }
+        timer.record(TimeUnit.MILLISECONDS.toNanos(40));
+
+        // WHEN
+        Histogram.Snapshot snapshot = timer.snapshot();
+
+        // THEN
+        assertSame(timer, metricsRegistry.timer("test_seconds", "stage", "load"));
+        assertEquals(100, snapshot.count());
+        assertTrue(snapshot.percentile(0.5) > 0.0001 && snapshot.percentile(0.5) <= 0.00025);
+        assertTrue(snapshot.percentile(0.99) <= 0.00025);
+        assertEquals(0.04, snapshot.percentile(1), 0.000001);
+    }
+
+    @Test
+    @DisplayName("Metrics are rendered in the Prometheus text format")
+    void whenScrapeThenRenderPrometheusTextFormat() {
+        // GIVEN
+        metricsRegistry.distribution("test_results", "engine", "index").record(3);
+        metricsRegistry.counter("test_statements_total", () -> 42);
+        metricsRegistry.gauge("test_ratio", () -> 0.5, "cache", "se\"arch");
+
+        // WHEN
+        String scrape = metricsRegistry.scrape();
+
+        // THEN
+        assertTrue(scrape.contains("# TYPE test_statements_total counter\ntest_statements_total 42\n"));
+        assertTrue(scrape.contains("# TYPE test_ratio gauge\ntest_ratio{cache=\"se\\\"arch\"} 0.5\n"));
+        assertTrue(scrape.contains("# TYPE test_results histogram\n"));
+        assertTrue(scrape.contains("test_results_bucket{engine=\"index\",le=\"2\"} 0\n"));
+        assertTrue(scrape.contains("test_results_bucket{engine=\"index\",le=\"5\"} 1\n"));
+        assertTrue(scrape.contains("test_results_bucket{engine=\"index\",le=\"+Inf\"} 1\n"));
+        assertTrue(scrape.contains("test_results_sum{engine=\"index\"} 3\n"));
+        assertTrue(scrape.contains("test_results_count{engine=\"index\"} 1\n"));
+    }
+
+    @Test
+    @DisplayName("Timed out asynchronous request is recorded once with the status 503")
+    void whenAsyncRequestTimesOutThenRecordServiceUnavailable() throws Exception {
+        // GIVEN
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events/async/");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new RequestMetricsFilter(metricsRegistry).doFilter(request, response, (req, res) -> req.startAsync(req, res));
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+
+        // WHEN
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext, request, response));
+        }
+        asyncContext.complete();
+
+        // THEN
+        Map<String, MetricsRegistry.HistogramSummary> summaries = metricsRegistry.summaries();
+        assertEquals(1, summaries.get(
+                "cdp_http_server_requests_seconds{method=\"GET\",uri=\"UNMATCHED\",status=\"503\"}").count());
+        assertFalse(summaries.containsKey(
+                "cdp_http_server_requests_seconds{method=\"GET\",uri=\"UNMATCHED\",status=\"200\"}"));
+    }
+}
@@ -0,0 +1,102 @@
+package adeo.leroymerlin.cdp;
+
+import adeo.leroymerlin.cdp.entity.Event;
+import adeo.leroymerlin.cdp.search.NameIndex;
+import adeo.leroymerlin.cdp.util.TestFileLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NameIndexTest {
+
+    private static final String ALL_EVENTS_DB_RESULT = "service/all-events-db-result.json";
+
+    private NameIndex nameIndex;
+
+    @BeforeEach
+    void setUp() {
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        assert events != null;
+        nameIndex = new NameIndex();
+        nameIndex.rebuild(events);
+    }
+
+    @Test
+    @DisplayName("Short query is resolved from the grams containing it")
+    void whenSearchShortQueryThenReturnMatchingMembers() {
+        // WHEN
+        NameIndex.Hits hits = nameIndex.search("Wa");
+
+        // THEN
+        assertEquals(Set.of(1010L), hits.memberMatches().keySet());
+        assertEquals(Set.of(1000L), hits.eventIds());
+    }
+
+    @Test
+    @DisplayName("Long query is resolved by intersecting trigram postings")
+    void whenSearchLongQueryThenReturnMatchingMembers() {
+        // WHEN
+        NameIndex.Hits hits = nameIndex.search("GERTRUDE hud");
+
+        // THEN
+        assertEquals(Map.of(1005L, 2), hits.memberMatches());
+        assertEquals(Set.of(1000L, 1003L), hits.eventIds());
+    }
+
+    @Test
+    @DisplayName("Event titles and band names are matched along with the member names")
+    void whenSearchTitleOrBandNameThenReturnMatchingEvents() {
+        // WHEN
+        NameIndex.Hits titleHits = nameIndex.search("fest");
+        NameIndex.Hits bandHits = nameIndex.search("pink floyd");
+
+        // THEN
+        assertEquals(Map.of(1001L, 2, 1003L, 2), titleHits.titleMatches());
+        assertEquals(Set.of(1001L, 1003L), titleHits.eventIds());
+        assertEquals(Map.of(1000L, 4), bandHits.bandMatches());
+        assertEquals(Set.of(1000L, 1003L), bandHits.eventIds());
+        assertTrue(bandHits.memberMatches().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Accents and case are folded on both the names and the query")
+    void whenSearchAccentedQueryThenFoldAccents() {
+        // WHEN
+        NameIndex.Hits hits = nameIndex.search("GÉRTRÜDE");
+
+        // THEN
+        assertEquals(Set.of(1005L), hits.memberMatches().keySet());
+        assertEquals("metallica", NameIndex.normalize(" Métallica "));
+    }
+
+    @Test
+    @DisplayName("Candidates sharing every trigram without containing the query are discarded")
+    void whenSearchQueryWithSharedTrigramsThenReturnNoFalsePositive() {
+        // WHEN
+        NameIndex.Hits hits = nameIndex.search("queen queen");
+
+        // THEN
+        assertTrue(hits.memberMatches().isEmpty());
+        assertTrue(hits.eventIds().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Removed event is no longer returned")
+    void whenRemoveEventThenEventIsNoLongerReturned() {
+        // WHEN
+        nameIndex.removeEvent(1000L);
+        NameIndex.Hits hits = nameIndex.search("Gertrude");
+
+        // THEN
+        assertEquals(Set.of(1003L), hits.eventIds());
+        assertTrue(nameIndex.search("Walsh").eventIds().isEmpty());
+        assertTrue(nameIndex.search("GrasPop").eventIds().isEmpty());
+    }
+}
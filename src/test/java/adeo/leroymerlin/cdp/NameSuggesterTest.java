@@ -0,0 +1,76 @@
+package adeo.leroymerlin.cdp;
+
+import adeo.leroymerlin.cdp.entity.Event;
+import adeo.leroymerlin.cdp.mapper.DtoMapper;
+import adeo.leroymerlin.cdp.search.NameSuggester;
+import adeo.leroymerlin.cdp.search.Suggestion;
+import adeo.leroymerlin.cdp.util.TestFileLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NameSuggesterTest {
+
+    private static final String ALL_EVENTS_DB_RESULT = "service/all-events-db-result.json";
+
+    private NameSuggester nameSuggester;
+
+    @BeforeEach
+    void setUp() {
+        List<Event> events = TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class);
+        assert events != null;
+        nameSuggester = new NameSuggester(null);
+        nameSuggester.rebuild(events.stream().map(DtoMapper::toEventView).toList());
+    }
+
+    @Test
+    @DisplayName("Short prefix is completed from the precomputed top names, the most frequent first")
+    void whenSuggestShortPrefixThenReturnMostFrequentNames() {
+        // WHEN
+        List<Suggestion> suggestions = nameSuggester.suggest("P", 3);
+
+        // THEN
+        assertEquals(List.of(
+                new Suggestion("Pink Floyd", Suggestion.Type.BAND, 2),
+                new Suggestion("Deep Purple", Suggestion.Type.BAND, 1),
+                new Suggestion("Queen Jamie Petty", Suggestion.Type.MEMBER, 1)), suggestions);
+    }
+
+    @Test
+    @DisplayName("Long prefix is completed from any word of the names, ignoring case and accents")
+    void whenSuggestLongPrefixThenMatchAnyWord() {
+        // WHEN
+        List<Suggestion> suggestions = nameSuggester.suggest("GÉRTRUDE hu", 10);
+
+        // THEN
+        assertEquals(List.of(new Suggestion("Queen Gertrude Hudson", Suggestion.Type.MEMBER, 2)), suggestions);
+    }
+
+    @Test
+    @DisplayName("Removed events are no longer counted and their names are no longer suggested")
+    void whenRemoveEventThenSuggestionsAreUpdated() {
+        // WHEN
+        nameSuggester.removeEvent(1003L);
+        List<Suggestion> afterFirstRemoval = nameSuggester.suggest("pi", 1);
+        nameSuggester.removeEvent(1000L);
+
+        // THEN
+        assertEquals(List.of(new Suggestion("Pink Floyd", Suggestion.Type.BAND, 1)), afterFirstRemoval);
+        assertTrue(nameSuggester.suggest("pi", 1).isEmpty());
+        assertEquals(List.of(new Suggestion("Deep Purple", Suggestion.Type.BAND, 1)), nameSuggester.suggest("p", 1));
+    }
+
+    @Test
+    @DisplayName("Blank or unknown prefix has no completion")
+    void whenSuggestUnknownPrefixThenReturnNothing() {
+        // THEN
+        assertTrue(nameSuggester.suggest("  ", 10).isEmpty());
+        assertTrue(nameSuggester.suggest("xyz", 10).isEmpty());
+        assertTrue(nameSuggester.suggest("queen zz", 10).isEmpty());
+    }
+}
@@ -0,0 +1,160 @@
+package adeo.leroymerlin.cdp;
+
+import adeo.leroymerlin.cdp.config.RatingProperties;
+import adeo.leroymerlin.cdp.entity.Event;
+import adeo.leroymerlin.cdp.readmodel.EventReadModel;
+import adeo.leroymerlin.cdp.readmodel.EventView;
+import adeo.leroymerlin.cdp.repository.EventJdbcRepository;
+import adeo.leroymerlin.cdp.repository.EventRepository;
+import adeo.leroymerlin.cdp.repository.RatingDelta;
+import adeo.leroymerlin.cdp.service.RatingBuffer;
+import adeo.leroymerlin.cdp.util.TestFileLoader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RatingBufferTest {
+
+    private static final String ALL_EVENTS_DB_RESULT = "service/all-events-db-result.json";
+
+    @Mock
+    private EventRepository eventRepository;
+    @Mock
+    private EventJdbcRepository eventJdbcRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private EventReadModel eventReadModel;
+
+    private RatingBuffer ratingBuffer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(eventRepository.findAllWithBandsAndMembers())
+                .thenReturn(TestFileLoader.getListFromJsonFile(ALL_EVENTS_DB_RESULT, Event.class));
+        eventReadModel = new EventReadModel(eventRepository, new ObjectMapper());
+        ratingBuffer = new RatingBuffer(eventJdbcRepository, eventReadModel, transactionManager, taskScheduler,
+                new RatingProperties(true, 3));
+    }
+
+    @Test
+    @DisplayName("Ratings of the same event are aggregated into a single update")
+    void whenFlushThenWriteAggregatedRatingsInOneBatch() {
+        // GIVEN
+        ratingBuffer.add(1000L, 4);
+        ratingBuffer.add(1000L, 5);
+        ratingBuffer.add(1001L, 1);
+
+        // WHEN
+        int flushed = ratingBuffer.flush();
+
+        // THEN
+        assertEquals(2, flushed);
+        assertEquals(0, ratingBuffer.size());
+        verify(eventJdbcRepository, times(1)).addRatings(Map.of(1000L, new RatingDelta(9, 2), 1001L, new RatingDelta(1, 1)));
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(9, eventReadModel.getCatalog().find(1000L).starTotal());
+        assertEquals(2, eventReadModel.getCatalog().find(1000L).voteCount());
+    }
+
+    @Test
+    @DisplayName("Ratings added while a flush writes its batch stay buffered for the next flush")
+    void whenRatedDuringFlushThenRatingStaysBuffered() {
+        // GIVEN
+        ratingBuffer.add(1000L, 4);
+        doAnswer(invocation -> ratingBuffer.add(1000L, 2)).doNothing().when(eventJdbcRepository).addRatings(any());
+
+        // WHEN
+        int flushed = ratingBuffer.flush();
+
+        // THEN
+        assertEquals(1, flushed);
+        assertEquals(Map.of(1000L, new RatingDelta(2, 1)), eventReadModel.pendingRatings());
+        assertEquals(6, eventReadModel.getCatalog().find(1000L).starTotal());
+        verify(eventJdbcRepository, times(1)).addRatings(Map.of(1000L, new RatingDelta(4, 1)));
+    }
+
+    @Test
+    @DisplayName("Rating of an unknown event is not buffered")
+    void whenAddRatingOfUnknownEventThenNothingBuffered() {
+        // WHEN
+        EventView ratedEvent = ratingBuffer.add(42L, 4);
+
+        // THEN
+        assertNull(ratedEvent);
+        assertEquals(0, ratingBuffer.size());
+    }
+
+    @Test
+    @DisplayName("Nothing is flushed when the ratings are not written behind")
+    void whenWriteBehindDisabledThenFlushIsSkipped() {
+        // GIVEN
+        RatingBuffer disabledBuffer = new RatingBuffer(eventJdbcRepository, eventReadModel, transactionManager,
+                taskScheduler, new RatingProperties(false, 3));
+
+        // WHEN
+        int flushed = disabledBuffer.flush();
+
+        // THEN
+        assertEquals(0, flushed);
+        verify(eventRepository, never()).findAllWithBandsAndMembers();
+        verifyNoInteractions(transactionManager, eventJdbcRepository);
+    }
+
+    @Test
+    @DisplayName("Buffer flush is scheduled once as soon as the threshold of buffered events is reached")
+    void whenThresholdReachedThenScheduleFlush() {
+        // GIVEN
+        ArgumentCaptor<Runnable> scheduledFlush = ArgumentCaptor.forClass(Runnable.class);
+
+        // WHEN
+        ratingBuffer.add(1000L, 4);
+        ratingBuffer.add(1001L, 4);
+        ratingBuffer.add(1002L, 4);
+        ratingBuffer.add(1003L, 4);
+
+        // THEN
+        verify(taskScheduler, times(1)).schedule(scheduledFlush.capture(), any(Instant.class));
+        assertEquals(4, ratingBuffer.size());
+        verify(eventJdbcRepository, never()).addRatings(any());
+        scheduledFlush.getValue().run();
+        assertEquals(0, ratingBuffer.size());
+        verify(eventJdbcRepository, times(1)).addRatings(any());
+    }
+
+    @Test
+    @DisplayName("Ratings of a failed flush are kept and merged with the newer ones")
+    void whenFlushFailsThenRatingsAreRetried() {
+        // GIVEN
+        ratingBuffer.add(1000L, 4);
+        doThrow(new IllegalStateException("Database unavailable")).doNothing().when(eventJdbcRepository).addRatings(any());
+
+        // WHEN
+        int failedFlush = ratingBuffer.flush();
+        ratingBuffer.add(1000L, 2);
+        int flushed = ratingBuffer.flush();
+
+        // THEN
+        assertEquals(0, failedFlush);
+        assertEquals(1, flushed);
+        verify(eventJdbcRepository, times(1)).addRatings(Map.of(1000L, new RatingDelta(6, 2)));
+        assertEquals(6, eventReadModel.getCatalog().find(1000L).starTotal());
+    }
+}